@@ -0,0 +1,117 @@
+package com.infmme.readilyapp.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed texts checked in under resources/corpus of core tests, so results of different commits can be compared
+ */
+public class Corpus {
+
+	public static final String ENCODING = "UTF-8";
+	public static final int CHUNK_SIZE = 4096;
+	public static final int BOOK_SIZE = 256 * 1024;
+	public static final int BINARY_COUNT = 8;
+	public static final int BINARY_SIZE = 384 * 1024;
+
+	private static final String BASE64_ALPHABET =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+	private static final int BASE64_LINE_LENGTH = 76;
+
+	public static byte[] loadBytes(String name) throws IOException{
+		InputStream is = Corpus.class.getResourceAsStream("/corpus/" + name);
+		if (is == null)
+			throw new IOException("no such corpus: " + name);
+		try {
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			byte[] buffer = new byte[CHUNK_SIZE];
+			int read;
+			while ((read = is.read(buffer)) != -1)
+				result.write(buffer, 0, read);
+			return result.toByteArray();
+		} finally {
+			is.close();
+		}
+	}
+
+	public static String load(String name) throws IOException{
+		return new String(loadBytes(name), ENCODING);
+	}
+
+	/**
+	 * @param language : one of "en", "ru", "uk"
+	 * @return text of a corpus repeated up to BOOK_SIZE chars, so it looks like a book, not a story
+	 */
+	public static String loadBook(String language) throws IOException{
+		String text = load(language + ".txt");
+		StringBuilder book = new StringBuilder(BOOK_SIZE + text.length());
+		while (book.length() < BOOK_SIZE)
+			book.append(text).append('\n');
+		return book.toString();
+	}
+
+	/**
+	 * @param language : one of "en", "ru", "uk"
+	 * @return FB2 corpus with its body repeated up to BOOK_SIZE bytes
+	 */
+	public static String loadFB2Book(String language) throws IOException{
+		String fb2 = load(language + ".fb2");
+		int bodyStart = fb2.indexOf("<body>") + "<body>".length();
+		int bodyEnd = fb2.indexOf("</body>");
+		String body = fb2.substring(bodyStart, bodyEnd);
+		StringBuilder book = new StringBuilder(BOOK_SIZE + fb2.length()).append(fb2, 0, bodyStart);
+		while (book.length() < BOOK_SIZE)
+			book.append(body);
+		return book.append(fb2, bodyEnd, fb2.length()).toString();
+	}
+
+	/**
+	 * @param language : one of "en", "ru", "uk"
+	 * @return FB2 book followed by BINARY_COUNT images of BINARY_SIZE base64 chars, like illustrated books are
+	 */
+	public static String loadImageFB2Book(String language) throws IOException{
+		String fb2 = loadFB2Book(language);
+		int end = fb2.lastIndexOf("</FictionBook>");
+		StringBuilder book = new StringBuilder(fb2.length() + BINARY_COUNT * (BINARY_SIZE + BINARY_SIZE / 64))
+				.append(fb2, 0, end);
+		Random random = new Random(BINARY_SIZE);
+		for (int i = 0; i < BINARY_COUNT; ++i){
+			book.append("<binary id=\"image").append(i).append(".jpg\" content-type=\"image/jpeg\">\n");
+			for (int j = 0; j < BINARY_SIZE; ++j){
+				book.append(BASE64_ALPHABET.charAt(random.nextInt(BASE64_ALPHABET.length())));
+				if ((j + 1) % BASE64_LINE_LENGTH == 0)
+					book.append('\n');
+			}
+			book.append("</binary>\n");
+		}
+		return book.append(fb2, end, fb2.length()).toString();
+	}
+
+	public static File writeTempFile(String text, String suffix, String encoding) throws IOException{
+		File file = File.createTempFile("readily-corpus", suffix);
+		file.deleteOnExit();
+		FileOutputStream fos = new FileOutputStream(file);
+		try {
+			fos.write(text.getBytes(encoding));
+		} finally {
+			fos.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Splits text the same way readables do: in chunks of CHUNK_SIZE chars
+	 */
+	public static List<String> chunks(String text){
+		List<String> result = new ArrayList<String>();
+		for (int i = 0; i < text.length(); i += CHUNK_SIZE)
+			result.add(text.substring(i, Math.min(text.length(), i + CHUNK_SIZE)));
+		return result;
+	}
+}
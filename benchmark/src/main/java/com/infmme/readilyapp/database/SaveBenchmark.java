@@ -0,0 +1,180 @@
+package com.infmme.readilyapp.database;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving of a position into the last_read database of a given count of books, run by sqlite-jdbc.
+ * Legacy saving is the one of version 2: no index on path, statements are compiled for every save;
+ * compiled saving runs statements of LastReadSchema compiled once, like LastReadContentProvider does.
+ * Every save is a transaction of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class SaveBenchmark {
+
+	private static final String CREATE_2 =
+			"CREATE TABLE " + LastReadSchema.TABLE + " (_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+					"header TEXT NOT NULL, path TEXT NOT NULL, time_modified INTEGER, percent_left INTEGER, " +
+					"position INTEGER, link TEXT, byte_position INTEGER);";
+	/**
+	 * Columns written by legacy saving besides path
+	 */
+	private static final int LEGACY_COLUMN_COUNT = 5;
+	private static final String LEGACY_UPDATE =
+			"UPDATE " + LastReadSchema.TABLE + " SET header = ?, position = ?, percent_left = ?, byte_position = ?, " +
+					"time_modified = ? WHERE path = ?";
+
+	@Param({"10", "1000", "10000"})
+	public int librarySize;
+
+	@Param({"DELETE", "WAL"})
+	public String journalMode;
+
+	@Param({"legacy", "compiled"})
+	public String statements;
+
+	private File file;
+	private Connection connection;
+	private PreparedStatement findStatement;
+	private PreparedStatement updateStatement;
+	private int next;
+
+	@Setup
+	public void setUp() throws Exception{
+		Class.forName("org.sqlite.JDBC");
+		file = File.createTempFile("last_read", ".db");
+		connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+		execute("PRAGMA journal_mode = " + journalMode);
+		boolean legacy = "legacy".equals(statements);
+		if (legacy)
+			execute(CREATE_2);
+		else
+			for (String sql : LastReadSchema.getCreateStatements())
+				execute(sql);
+		connection.setAutoCommit(false);
+		PreparedStatement insert = connection.prepareStatement(legacy ?
+				"INSERT INTO " + LastReadSchema.TABLE + " (header, position, percent_left, byte_position, " +
+						"time_modified, path) VALUES (?, ?, ?, ?, ?, ?)" :
+				LastReadSchema.UPSERT_INSERT);
+		for (int i = 0; i < librarySize; ++i){
+			bindRow(insert, i, legacy);
+			insert.setString((legacy ? LEGACY_COLUMN_COUNT : LastReadSchema.UPSERT_COLUMNS.length) + 1, getPath(i));
+			insert.executeUpdate();
+		}
+		insert.close();
+		connection.commit();
+		connection.setAutoCommit(true);
+		if (!legacy){
+			findStatement = connection.prepareStatement(LastReadSchema.FIND_ROWID_BY_PATH);
+			updateStatement = connection.prepareStatement(LastReadSchema.UPSERT_UPDATE);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException, IOException{
+		if (findStatement != null){
+			findStatement.close();
+			updateStatement.close();
+		}
+		connection.close();
+		file.delete();
+		new File(file.getPath() + "-wal").delete();
+		new File(file.getPath() + "-shm").delete();
+	}
+
+	@Benchmark
+	public int save() throws SQLException{
+		int book = next++ % librarySize;
+		if ("legacy".equals(statements))
+			return saveLegacy(book);
+		return saveCompiled(book);
+	}
+
+	private int saveLegacy(int book) throws SQLException{
+		String path = getPath(book);
+		PreparedStatement find = connection.prepareStatement(
+				"SELECT _id FROM " + LastReadSchema.TABLE + " WHERE path = ?");
+		try {
+			find.setString(1, path);
+			ResultSet resultSet = find.executeQuery();
+			if (!resultSet.next())
+				return 0;
+		} finally {
+			find.close();
+		}
+		PreparedStatement update = connection.prepareStatement(LEGACY_UPDATE);
+		try {
+			bindRow(update, book, true);
+			update.setString(LEGACY_COLUMN_COUNT + 1, path);
+			return update.executeUpdate();
+		} finally {
+			update.close();
+		}
+	}
+
+	/**
+	 * Lookup and update are one transaction, as in LastReadContentProvider.upsert()
+	 */
+	private int saveCompiled(int book) throws SQLException{
+		connection.setAutoCommit(false);
+		try {
+			findStatement.setString(1, getPath(book));
+			ResultSet resultSet = findStatement.executeQuery();
+			long rowId = resultSet.next() ? resultSet.getLong(1) : -1;
+			resultSet.close();
+			if (rowId < 0)
+				return 0;
+			bindRow(updateStatement, book, false);
+			updateStatement.setLong(LastReadSchema.UPSERT_COLUMNS.length + 1, rowId);
+			int count = updateStatement.executeUpdate();
+			connection.commit();
+			return count;
+		} finally {
+			connection.setAutoCommit(true);
+		}
+	}
+
+	/**
+	 * Binds columns in the order of UPSERT_COLUMNS, legacy rows have no time_verified and keep percent as text
+	 */
+	private void bindRow(PreparedStatement statement, int book, boolean legacy) throws SQLException{
+		int percent = next % 100;
+		statement.setString(1, "Book " + book);
+		statement.setInt(2, next);
+		if (legacy)
+			statement.setString(3, percent + "%");
+		else
+			statement.setInt(3, percent);
+		statement.setLong(4, next * 4096L);
+		statement.setLong(5, System.currentTimeMillis());
+		if (!legacy)
+			statement.setLong(6, 0);
+	}
+
+	private static String getPath(int book){
+		return "/sdcard/Books/book" + book + ".fb2";
+	}
+
+	private void execute(String sql) throws SQLException{
+		Statement statement = connection.createStatement();
+		try {
+			statement.execute(sql);
+		} finally {
+			statement.close();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emphasis of every word of a whole book
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class EmphasisBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	private TokenBuffer tokens;
+	private String[] words;
+
+	@Setup
+	public void setUp() throws IOException{
+		tokens = TokenBuffer.tokenize(TextNormalizer.normalize(Corpus.loadBook(language)));
+		words = new String[tokens.size()];
+		for (int i = 0; i < words.length; ++i)
+			words[i] = tokens.getWord(i);
+	}
+
+	@Benchmark
+	public void score(Blackhole blackhole){
+		EmphasisScorer scorer = new EmphasisScorer();
+		for (int i = 0; i < tokens.size(); ++i)
+			blackhole.consume(scorer.score(tokens, i));
+	}
+
+	@Benchmark
+	public void legacyScore(Blackhole blackhole){
+		for (String word : words)
+			blackhole.consume(LegacyEmphasis.score(word));
+	}
+}
@@ -0,0 +1,43 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalization of a whole book, chunk by chunk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class NormalizerBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	private List<String> chunks;
+
+	@Setup
+	public void setUp() throws IOException{
+		chunks = Corpus.chunks(Corpus.loadBook(language));
+	}
+
+	@Benchmark
+	public void normalize(Blackhole blackhole){
+		for (String chunk : chunks)
+			blackhole.consume(TextNormalizer.normalize(chunk));
+	}
+
+	@Benchmark
+	public void legacyNormalize(Blackhole blackhole){
+		for (String chunk : chunks)
+			blackhole.consume(LegacyNormalizer.normalize(chunk));
+	}
+}
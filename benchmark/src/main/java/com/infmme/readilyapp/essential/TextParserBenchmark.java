@@ -0,0 +1,95 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import com.infmme.readilyapp.readable.RawReadable;
+import com.infmme.readilyapp.readable.Readable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TextParser.process() over a whole book and each of its stages separately.
+ * Every stage gets the output of the previous ones prepared in setUp().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class TextParserBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	private List<String> chunks;
+	private List<String> normalizedChunks;
+	private List<Readable> tokenizedReadables;
+	private Readable readable;
+	private TextParser parser;
+
+	@Setup
+	public void setUp() throws IOException{
+		chunks = Corpus.chunks(Corpus.loadBook(language));
+		normalizedChunks = new ArrayList<String>();
+		tokenizedReadables = new ArrayList<Readable>();
+		for (String chunk : chunks){
+			TextParser chunkParser = new TextParser(new RawReadable(chunk, false));
+			Readable chunkReadable = chunkParser.getReadable();
+			chunkParser.normalize(chunkReadable);
+			normalizedChunks.add(chunkReadable.getText());
+			chunkParser.cutLongWords(chunkReadable);
+			chunkReadable.setTokens(TokenBuffer.tokenize(chunkReadable.getText()));
+			tokenizedReadables.add(chunkReadable);
+		}
+		readable = new RawReadable("", false);
+		parser = new TextParser(readable);
+	}
+
+	@Benchmark
+	public void process(Blackhole blackhole){
+		for (String chunk : chunks){
+			TextParser textParser = new TextParser(new RawReadable(chunk, false));
+			textParser.process();
+			blackhole.consume(textParser.getReadable().getTokens());
+		}
+	}
+
+	@Benchmark
+	public void normalize(Blackhole blackhole){
+		for (String chunk : chunks){
+			readable.setText(chunk);
+			parser.normalize(readable);
+			blackhole.consume(readable.getTextBuilder());
+		}
+	}
+
+	@Benchmark
+	public void cutLongWords(Blackhole blackhole){
+		for (String chunk : normalizedChunks){
+			readable.setText(chunk);
+			parser.cutLongWords(readable);
+			blackhole.consume(readable.getTextBuilder());
+		}
+	}
+
+	@Benchmark
+	public void buildDelayList(Blackhole blackhole){
+		for (Readable chunkReadable : tokenizedReadables){
+			parser.buildDelayList(chunkReadable);
+			blackhole.consume(chunkReadable.getTokens());
+		}
+	}
+
+	@Benchmark
+	public void buildEmphasis(Blackhole blackhole){
+		for (Readable chunkReadable : tokenizedReadables){
+			parser.buildEmphasis(chunkReadable);
+			blackhole.consume(chunkReadable.getTokens());
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting of normalized chunks into words
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class TokenBufferBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	private List<String> chunks;
+
+	@Setup
+	public void setUp() throws IOException{
+		chunks = new ArrayList<String>();
+		for (String chunk : Corpus.chunks(Corpus.loadBook(language)))
+			chunks.add(TextNormalizer.normalize(chunk));
+	}
+
+	@Benchmark
+	public void tokenize(Blackhole blackhole){
+		for (String chunk : chunks)
+			blackhole.consume(TokenBuffer.tokenize(chunk));
+	}
+}
@@ -0,0 +1,61 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.platform.JvmPlatform;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reopening of a txt book and parsing of all its chunks, with the chunk cache filled by a previous reading
+ * and without any cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ChunkCacheBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	@Param({"false", "true"})
+	public boolean cached;
+
+	private JvmPlatform platform;
+	private File file;
+
+	@Setup
+	public void setUp() throws IOException{
+		file = Corpus.writeTempFile(Corpus.loadBook(language), ".txt", Corpus.ENCODING);
+		File cacheDir = null;
+		if (cached){
+			cacheDir = new File(file.getParentFile(), file.getName() + ".cache");
+			cacheDir.mkdirs();
+		}
+		platform = new JvmPlatform(file.getParentFile(), cacheDir);
+		readBook(null);
+	}
+
+	@Benchmark
+	public void readBook(Blackhole blackhole){
+		TxtFileStorable storable = new TxtFileStorable(file.getAbsolutePath());
+		storable.process(platform);
+		storable.readData();
+		TextParser parser = new TextParser(storable);
+		parser.process();
+		while (parser.getReadable().getText().length() > 0){
+			if (blackhole != null)
+				blackhole.consume(parser.getReadable().getTokens());
+			parser = new TextParser(parser.getReadable().getNext());
+			parser.process();
+		}
+		storable.closeChunkCache();
+	}
+}
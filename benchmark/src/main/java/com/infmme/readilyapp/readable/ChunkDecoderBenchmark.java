@@ -0,0 +1,79 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a whole file and resuming from its middle, by mapped and stream backends
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ChunkDecoderBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	@Param({"true", "false"})
+	public boolean mapped;
+
+	private File file;
+	private long middle;
+	private Charset charset;
+	private FileInputStream fis;
+	private StringBuilder text;
+
+	@Setup
+	public void setUp() throws IOException{
+		String book = Corpus.loadBook(language);
+		file = Corpus.writeTempFile(book, ".txt", Corpus.ENCODING);
+		middle = book.substring(0, book.length() / 2).getBytes(Corpus.ENCODING).length;
+		charset = Charset.forName(Corpus.ENCODING);
+		text = new StringBuilder(FileStorable.BUFFER_SIZE);
+	}
+
+	@Setup(Level.Invocation)
+	public void open() throws IOException{
+		fis = new FileInputStream(file);
+	}
+
+	@TearDown(Level.Invocation)
+	public void close() throws IOException{
+		fis.close();
+	}
+
+	private ChunkDecoder createDecoder(){
+		return mapped
+				? ChunkDecoder.open(fis.getChannel(), charset, FileStorable.BUFFER_SIZE)
+				: new ChunkDecoder(fis.getChannel(), charset, FileStorable.BUFFER_SIZE);
+	}
+
+	@Benchmark
+	public void read(Blackhole blackhole) throws IOException{
+		ChunkDecoder decoder = createDecoder();
+		int consumed;
+		do {
+			text.setLength(0);
+			consumed = decoder.read(text);
+			blackhole.consume(text);
+		} while (consumed != -1);
+	}
+
+	@Benchmark
+	public void seekAndRead(Blackhole blackhole) throws IOException{
+		ChunkDecoder decoder = createDecoder();
+		decoder.seek(middle);
+		text.setLength(0);
+		blackhole.consume(decoder.read(text));
+	}
+}
@@ -0,0 +1,58 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.platform.JvmPlatform;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening of a fb2 book until its first chunk is parsed, from the book itself and from its compiled file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class CompiledBookBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	@Param({"false", "true"})
+	public boolean compiled;
+
+	private JvmPlatform platform;
+	private File file;
+
+	@Setup
+	public void setUp() throws IOException{
+		file = Corpus.writeTempFile(Corpus.loadFB2Book(language), ".fb2", Corpus.ENCODING);
+		File cacheDir = null;
+		if (compiled){
+			cacheDir = new File(file.getParentFile(), file.getName() + ".cache");
+			cacheDir.mkdirs();
+		}
+		platform = new JvmPlatform(file.getParentFile(), cacheDir);
+		if (compiled)
+			CompiledBook.compile(platform, new FB2FileStorable(file.getAbsolutePath()));
+	}
+
+	@Benchmark
+	public TextParser open() throws IOException{
+		FileStorable storable = CompiledFileStorable.wrap(platform, new FB2FileStorable(file.getAbsolutePath()));
+		storable.process(platform);
+		storable.readData();
+		TextParser parser = new TextParser(storable);
+		parser.process();
+		FileInputStream fis = storable.getFileInputStream();
+		if (fis != null)
+			fis.close();
+		return parser;
+	}
+}
@@ -0,0 +1,58 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import com.infmme.readilyapp.platform.JvmPlatform;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TxtFileStorable.readData() chunk by chunk until the end of a file.
+ * Opening of a file (with encoding detection) isn't measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class TxtFileStorableBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	private JvmPlatform platform;
+	private File file;
+	private TxtFileStorable storable;
+
+	@Setup
+	public void setUp() throws IOException{
+		file = Corpus.writeTempFile(Corpus.loadBook(language), ".txt", Corpus.ENCODING);
+		platform = new JvmPlatform(file.getParentFile());
+	}
+
+	@Setup(Level.Invocation)
+	public void open(){
+		storable = new TxtFileStorable(file.getAbsolutePath());
+		storable.process(platform);
+	}
+
+	@TearDown(Level.Invocation)
+	public void close() throws IOException{
+		FileInputStream fis = storable.getFileInputStream();
+		if (fis != null)
+			fis.close();
+	}
+
+	@Benchmark
+	public void readData(Blackhole blackhole){
+		do {
+			storable.readData();
+			blackhole.consume(storable.getTextBuilder());
+		} while (storable.getTextBuilder().length() > 0);
+	}
+}
@@ -0,0 +1,53 @@
+package com.infmme.readilyapp.xmlparser;
+
+import com.infmme.readilyapp.benchmark.Corpus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XMLParser.next() over an illustrated FB2 book, binary tags are skipped or decoded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class XMLParserImageBenchmark {
+
+	@Param({"en", "ru", "uk"})
+	public String language;
+
+	@Param({"true", "false"})
+	public boolean skipBinary;
+
+	private File file;
+
+	@Setup
+	public void setUp() throws IOException{
+		file = Corpus.writeTempFile(Corpus.loadImageFB2Book(language), ".fb2", Corpus.ENCODING);
+	}
+
+	@Benchmark
+	public void next(Blackhole blackhole) throws IOException{
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			XMLParser parser = new XMLParser();
+			if (skipBinary)
+				parser.setIgnoredTags("binary");
+			parser.setInput(fis, Corpus.ENCODING);
+			XMLEvent event;
+			do {
+				event = parser.next();
+				blackhole.consume(event);
+			} while (event.getType() != XMLParser.DOCUMENT_CLOSE);
+		} finally {
+			fis.close();
+		}
+	}
+}
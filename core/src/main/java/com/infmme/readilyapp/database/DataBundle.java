@@ -1,9 +1,5 @@
 package com.infmme.readilyapp.database;
 
-import android.content.ContentValues;
-import android.content.Intent;
-import com.infmme.readilyapp.Constants;
-
 import java.io.Serializable;
 
 /**
@@ -35,6 +31,10 @@ public class DataBundle implements Serializable {
 		this.percent = percent;
 	}
 
+	public DataBundle(DataBundle that){
+		this(that.rowId, that.header, that.path, that.position, that.bytePosition, that.percent);
+	}
+
 	public DataBundle(int rowId, String header, String path, int position, long bytePosition, String percent){
 		this.rowId = rowId;
 		this.header = header;
@@ -44,33 +44,6 @@ public class DataBundle implements Serializable {
 		this.percent = percent;
 	}
 
-	public static DataBundle createElementFromIntent(Intent intent){
-		return new DataBundle(intent.getStringExtra(Constants.EXTRA_HEADER),
-							  intent.getStringExtra(Constants.EXTRA_PATH),
-							  intent.getIntExtra(Constants.EXTRA_POSITION, 0),
-							  intent.getLongExtra(Constants.EXTRA_BYTE_POSITION, 0),
-							  intent.getStringExtra(Constants.EXTRA_PERCENT));
-	}
-
-	public static ContentValues getInsertContentValues(DataBundle dataBundle){
-		ContentValues values = new ContentValues();
-		values.put(LastReadDBHelper.KEY_HEADER, dataBundle.getHeader());
-		values.put(LastReadDBHelper.KEY_PATH, dataBundle.getPath());
-		values.put(LastReadDBHelper.KEY_POSITION, dataBundle.getPosition());
-		values.put(LastReadDBHelper.KEY_PERCENT, dataBundle.getPercent());
-		values.put(LastReadDBHelper.KEY_BYTE_POSITION, dataBundle.getBytePosition());
-		return values;
-	}
-
-	public static ContentValues getUpdateContentValues(DataBundle dataBundle){
-		ContentValues values = new ContentValues();
-		values.put(LastReadDBHelper.KEY_POSITION, dataBundle.getPosition());
-		values.put(LastReadDBHelper.KEY_PERCENT, dataBundle.getPercent());
-		values.put(LastReadDBHelper.KEY_HEADER, dataBundle.getHeader());
-		values.put(LastReadDBHelper.KEY_BYTE_POSITION, dataBundle.getBytePosition());
-		return values;
-	}
-
 	public int getRowId(){
 		return rowId;
 	}
@@ -107,6 +80,10 @@ public class DataBundle implements Serializable {
 		return bytePosition;
 	}
 
+	public void setBytePosition(long bytePosition){
+		this.bytePosition = bytePosition;
+	}
+
 	public String getPercent(){
 		return percent;
 	}
@@ -0,0 +1,151 @@
+package com.infmme.readilyapp.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SQL of the last_read database, it doesn't depend on Android, so migrations can be run by any SQLite driver.
+ * LastReadDBHelper executes these statements.
+ */
+public class LastReadSchema {
+
+	public static final String TABLE = "last_read_table";
+	public static final int VERSION = 5;
+	public static final String KEY_ROWID = "_id";
+	public static final String KEY_HEADER = "header";
+	public static final String KEY_PATH = "path";
+	public static final String KEY_POSITION = "position";
+	public static final String KEY_PERCENT = "percent_left";
+	public static final String KEY_TIME_MODIFIED = "time_modified";
+	public static final String KEY_BYTE_POSITION = "byte_position";
+	/**
+	 * Time the book was last found in storage, 0 if it wasn't checked yet
+	 */
+	public static final String KEY_TIME_VERIFIED = "time_verified";
+	public static final String INDEX_PATH = "last_read_path_index";
+	public static final String INDEX_TIME_MODIFIED = "last_read_time_modified_index";
+	public static final String INDEX_TIME_VERIFIED = "last_read_time_verified_index";
+	/**
+	 * Rows of the list are ordered by it, the latest read first
+	 */
+	public static final String ORDER_RECENT_FIRST = KEY_TIME_MODIFIED + " DESC, " + KEY_ROWID + " DESC";
+	static final String CREATE =
+			"CREATE TABLE " + TABLE + " (" +
+					KEY_ROWID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+					KEY_HEADER + " TEXT NOT NULL, " +
+					KEY_PATH + " TEXT NOT NULL, " +
+					KEY_TIME_MODIFIED + " INTEGER NOT NULL DEFAULT 0, " +
+					KEY_PERCENT + " INTEGER, " +
+					KEY_POSITION + " INTEGER, " +
+					KEY_BYTE_POSITION + " INTEGER, " +
+					KEY_TIME_VERIFIED + " INTEGER NOT NULL DEFAULT 0);";
+	static final String CREATE_INDEX_PATH =
+			"CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_PATH + " ON " + TABLE + " (" + KEY_PATH + ");";
+	static final String CREATE_INDEX_TIME_MODIFIED =
+			"CREATE INDEX IF NOT EXISTS " + INDEX_TIME_MODIFIED + " ON " + TABLE + " (" + KEY_TIME_MODIFIED + ");";
+	static final String CREATE_INDEX_TIME_VERIFIED =
+			"CREATE INDEX IF NOT EXISTS " + INDEX_TIME_VERIFIED + " ON " + TABLE + " (" + KEY_TIME_VERIFIED + ");";
+	/**
+	 * Version 4 drops link column and stores percent as a number ("42%" becomes 42), so the table is rebuilt.
+	 * Rebuilt table has the latest schema, later versions aren't applied to it.
+	 */
+	static final String[] MIGRATE_TO_4 = {
+			"ALTER TABLE " + TABLE + " RENAME TO " + TABLE + "_old;",
+			CREATE,
+			"INSERT INTO " + TABLE + " (" + KEY_ROWID + ", " + KEY_HEADER + ", " + KEY_PATH + ", " +
+					KEY_TIME_MODIFIED + ", " + KEY_PERCENT + ", " + KEY_POSITION + ", " + KEY_BYTE_POSITION + ") " +
+					"SELECT " + KEY_ROWID + ", " + KEY_HEADER + ", " + KEY_PATH + ", " +
+					"IFNULL(" + KEY_TIME_MODIFIED + ", 0), " +
+					"CAST(REPLACE(" + KEY_PERCENT + ", '%', '') AS INTEGER), " +
+					KEY_POSITION + ", " + KEY_BYTE_POSITION + " FROM " + TABLE + "_old;",
+			"DROP TABLE " + TABLE + "_old;"
+	};
+	/**
+	 * Columns written by upsert statements besides path, their parameters are in this order
+	 */
+	public static final String[] UPSERT_COLUMNS = {
+			KEY_HEADER, KEY_POSITION, KEY_PERCENT, KEY_BYTE_POSITION, KEY_TIME_MODIFIED, KEY_TIME_VERIFIED
+	};
+	/**
+	 * Finds id of the row of a path by the index on path
+	 */
+	public static final String FIND_ROWID_BY_PATH =
+			"SELECT " + KEY_ROWID + " FROM " + TABLE + " WHERE " + KEY_PATH + " = ?";
+	/**
+	 * Parameters are UPSERT_COLUMNS followed by path
+	 */
+	public static final String UPSERT_INSERT = buildUpsertInsert();
+	/**
+	 * Parameters are UPSERT_COLUMNS followed by id of the row
+	 */
+	public static final String UPSERT_UPDATE = buildUpsertUpdate();
+	/**
+	 * Keeps the latest row of every path, so the unique index can be created
+	 */
+	static final String DELETE_DUPLICATE_PATHS =
+			"DELETE FROM " + TABLE + " WHERE " + KEY_ROWID + " NOT IN (SELECT MAX(" + KEY_ROWID + ") FROM " +
+					TABLE + " GROUP BY " + KEY_PATH + ");";
+
+	/**
+	 * @return statements creating the latest schema
+	 */
+	public static List<String> getCreateStatements(){
+		List<String> result = new ArrayList<String>();
+		result.add(CREATE);
+		addIndexes(result);
+		return result;
+	}
+
+	/**
+	 * @return statements upgrading the schema of oldVersion to newVersion
+	 */
+	public static List<String> getUpgradeStatements(int oldVersion, int newVersion){
+		List<String> result = new ArrayList<String>();
+		int upgradeTo = oldVersion;
+		while (upgradeTo++ <= newVersion) {
+			switch (upgradeTo) {
+				case 2:
+					result.add("ALTER TABLE " + TABLE + " ADD COLUMN " + KEY_BYTE_POSITION + " INTEGER");
+					break;
+				case 3:
+					result.add(DELETE_DUPLICATE_PATHS);
+					result.add(CREATE_INDEX_PATH);
+					break;
+				case 4:
+					result.addAll(Arrays.asList(MIGRATE_TO_4));
+					addIndexes(result);
+					return result;
+				case 5:
+					result.add("ALTER TABLE " + TABLE + " ADD COLUMN " + KEY_TIME_VERIFIED + " INTEGER NOT NULL DEFAULT 0");
+					result.add(CREATE_INDEX_TIME_VERIFIED);
+					break;
+			}
+		}
+		return result;
+	}
+
+	private static String buildUpsertInsert(){
+		StringBuilder insert = new StringBuilder("INSERT INTO " + TABLE + " (");
+		for (String column : UPSERT_COLUMNS)
+			insert.append(column).append(", ");
+		insert.append(KEY_PATH).append(") VALUES (");
+		for (int i = 0; i < UPSERT_COLUMNS.length; ++i)
+			insert.append("?, ");
+		return insert.append("?)").toString();
+	}
+
+	private static String buildUpsertUpdate(){
+		StringBuilder update = new StringBuilder("UPDATE " + TABLE + " SET ");
+		for (String column : UPSERT_COLUMNS)
+			update.append(column).append(" = ?, ");
+		update.setLength(update.length() - 2);
+		return update.append(" WHERE ").append(KEY_ROWID).append(" = ?").toString();
+	}
+
+	private static void addIndexes(List<String> statements){
+		statements.add(CREATE_INDEX_PATH);
+		statements.add(CREATE_INDEX_TIME_MODIFIED);
+		statements.add(CREATE_INDEX_TIME_VERIFIED);
+	}
+}
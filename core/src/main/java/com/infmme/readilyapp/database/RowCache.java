@@ -0,0 +1,126 @@
+package com.infmme.readilyapp.database;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of rows of last read books, keyed by path; cached rows are indexed by rowId too,
+ * so a row changed by its id can be invalidated.
+ * Absence of a row is cached too, so opening a new book doesn't query the database every time.
+ * Writer of rows has to invalidate them after the change is committed; every invalidation starts
+ * a new generation, so a row loaded before it is never put into the cache after it.
+ * Rows are copied in and out, callers can change them freely.
+ */
+public class RowCache {
+
+	public static final int CAPACITY = 256;
+
+	private static final RowCache instance = new RowCache(CAPACITY);
+	/**
+	 * Marks a path which has no row
+	 */
+	private static final DataBundle ABSENT = new DataBundle();
+
+	private final Map<String, DataBundle> byPath;
+	private final Map<Integer, DataBundle> byRowId = new HashMap<Integer, DataBundle>();
+	private long generation;
+	private long hitCount;
+	private long missCount;
+
+	public RowCache(final int capacity){
+		byPath = new LinkedHashMap<String, DataBundle>(16, .75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, DataBundle> eldest){
+				if (size() <= capacity)
+					return false;
+				if (eldest.getValue() != ABSENT)
+					byRowId.remove(eldest.getValue().getRowId());
+				return true;
+			}
+		};
+	}
+
+	public static RowCache getInstance(){
+		return instance;
+	}
+
+	/**
+	 * Loads a row which isn't cached
+	 */
+	public interface Loader {
+		/**
+		 * @return row of the path, null if there is no such row
+		 */
+		DataBundle load(String path);
+	}
+
+	/**
+	 * @param loader : called without a lock if the path isn't cached
+	 * @return row of the path, null if there is no such row
+	 */
+	public DataBundle get(String path, Loader loader){
+		long loadGeneration;
+		synchronized (this){
+			if (byPath.containsKey(path)){
+				hitCount++;
+				return copy(byPath.get(path));
+			}
+			missCount++;
+			loadGeneration = generation;
+		}
+		DataBundle row = loader.load(path);
+		synchronized (this){
+			if (generation == loadGeneration)
+				put(path, row);
+		}
+		return row;
+	}
+
+	public synchronized void invalidate(String path){
+		generation++;
+		DataBundle row = byPath.remove(path);
+		if (row != null && row != ABSENT)
+			byRowId.remove(row.getRowId());
+	}
+
+	public synchronized void invalidate(int rowId){
+		generation++;
+		DataBundle row = byRowId.remove(rowId);
+		if (row != null)
+			byPath.remove(row.getPath());
+	}
+
+	public synchronized void invalidateAll(){
+		generation++;
+		byPath.clear();
+		byRowId.clear();
+	}
+
+	public synchronized int size(){
+		return byPath.size();
+	}
+
+	@Override
+	public synchronized String toString(){
+		return "RowCache{hits " + hitCount + ", misses " + missCount + ", rows " + byPath.size() + "}";
+	}
+
+	private void put(String path, DataBundle row){
+		if (row == null){
+			byPath.put(path, ABSENT);
+			return;
+		}
+		row = copy(row);
+		DataBundle old = byRowId.put(row.getRowId(), row);
+		if (old != null && !old.getPath().equals(path))
+			byPath.remove(old.getPath());
+		byPath.put(path, row);
+	}
+
+	private static DataBundle copy(DataBundle row){
+		if (row == null || row == ABSENT)
+			return null;
+		return new DataBundle(row);
+	}
+}
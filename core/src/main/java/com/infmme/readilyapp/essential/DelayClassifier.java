@@ -0,0 +1,97 @@
+package com.infmme.readilyapp.essential;
+
+/**
+ * Words are classified by the punctuation they contain, while parsing only a bit mask of classes is stored.
+ * The delay of a word is the biggest coefficient among its classes, it's looked up in a table
+ * built once from coefficients, so changing them (or WPM) doesn't require parsing text again.
+ */
+public class DelayClassifier {
+
+	/**
+	 * Indexes in delay coefficients taken from SettingsBundle
+	 */
+	public static final int CLASS_DEFAULT = 0;
+	public static final int CLASS_COMMA = 1;
+	public static final int CLASS_END_OF_SENTENCE = 2;
+	public static final int CLASS_DASH = 3;
+	public static final int CLASS_NEW_LINE = 4;
+	public static final int CLASS_NEGATION = 5;
+	public static final int CLASS_COUNT = 6;
+
+	private static final byte[] ASCII_CLASSES = new byte[128];
+
+	static{
+		for (char ch = '0'; ch <= '9'; ++ch)
+			ASCII_CLASSES[ch] = CLASS_COMMA;
+		ASCII_CLASSES[','] = CLASS_COMMA;
+		ASCII_CLASSES['.'] = CLASS_END_OF_SENTENCE;
+		ASCII_CLASSES['!'] = CLASS_END_OF_SENTENCE;
+		ASCII_CLASSES['?'] = CLASS_END_OF_SENTENCE;
+		ASCII_CLASSES['-'] = CLASS_DASH;
+		ASCII_CLASSES[':'] = CLASS_DASH;
+		ASCII_CLASSES[';'] = CLASS_DASH;
+		ASCII_CLASSES['\n'] = CLASS_NEW_LINE;
+		ASCII_CLASSES['\t'] = CLASS_NEW_LINE;
+	}
+
+	/**
+	 * Delay for every possible mask of classes
+	 */
+	private final int[] delays = new int[1 << CLASS_COUNT];
+
+	/**
+	 * @param delayCoefficients : delay coefficients taken from SettingsBundle, one per class
+	 */
+	public DelayClassifier(int[] delayCoefficients){
+		for (int classes = 1; classes < delays.length; ++classes){
+			int delay = 0;
+			for (int i = 0; i < CLASS_COUNT; ++i)
+				if ((classes & (1 << i)) != 0 && delayCoefficients[i] > delay)
+					delay = delayCoefficients[i];
+			delays[classes] = delay;
+		}
+	}
+
+	public static int classOf(char ch){
+		if (ch < ASCII_CLASSES.length)
+			return ASCII_CLASSES[ch];
+		if (ch == '—')
+			return CLASS_DASH;
+		if (Character.isDigit(ch))
+			return CLASS_COMMA;
+		return CLASS_DEFAULT;
+	}
+
+	/**
+	 * @param text   : chars of a word
+	 * @param start  : index of the first char of a word
+	 * @param length : length of a word
+	 * @return bit mask of classes found in a word
+	 */
+	public static int classify(char[] text, int start, int length){
+		if (length == 0)
+			return 1 << CLASS_DEFAULT;
+		if (isNegation(text, start, length))
+			return 1 << CLASS_NEGATION;
+		int classes = 0;
+		for (int i = start; i < start + length; ++i)
+			classes |= 1 << classOf(text[i]);
+		return classes;
+	}
+
+	/**
+	 * @return true if a word is "не" or "not"
+	 */
+	private static boolean isNegation(char[] text, int start, int length){
+		return (length == 2 && text[start] == 'н' && text[start + 1] == 'е') ||
+				(length == 3 && text[start] == 'n' && text[start + 1] == 'o' && text[start + 2] == 't');
+	}
+
+	/**
+	 * @param classes : bit mask returned by classify()
+	 * @return delay in the same units as coefficients
+	 */
+	public int getDelay(int classes){
+		return delays[classes];
+	}
+}
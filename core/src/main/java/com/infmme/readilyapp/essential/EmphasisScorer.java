@@ -0,0 +1,130 @@
+package com.infmme.readilyapp.essential;
+
+/**
+ * Finds the letter to emphasize in a word (an optimal recognition point).
+ * Replaces a HashMap of Pairs which used to be built for every word in TextParser:
+ * priorities live in a char-indexed table and candidates in a few reused arrays,
+ * so scoring a word allocates nothing. Results are exactly the same as before.
+ */
+public class EmphasisScorer {
+
+	public static final int MAX_LEFT_CHARACTER_COUNT = 8;
+
+	/**
+	 * Latin and Cyrillic chars, every letter having a priority is lowercased into this range
+	 */
+	private static final int TABLE_SIZE = 0x500;
+	/**
+	 * Former HashMap<String, ...> with at most 8 keys had 16 buckets,
+	 * entries with equal scores are resolved in its iteration order
+	 */
+	private static final int BUCKET_MASK = 15;
+
+	/**
+	 * Lowercase letter in place of a char, 0 if a char is never emphasized (letters with zero priority aren't)
+	 */
+	private static final char[] KEYS = new char[TABLE_SIZE];
+	/**
+	 * Priority of a lowercase letter
+	 */
+	private static final byte[] PRIORITIES = new byte[TABLE_SIZE];
+
+	static{
+		/**
+		 a 	b 	c 	d 	e 	f 	g 	h 	i 	j 	k 	l 	m 	n 	o 	p 	q 	r 	s 	t 	u 	v 	w 	x 	y 	z
+		 */
+		putPriorities("abcdefghijklmnoprstuvwxyz",
+					  new int[]{10, 4, 4, 4, 9, 12, 10, 12, 8, 10, 8, 6, 6, 5, 8, 6, 12, 5, 15, 12, 14, 12, 14, 13, 14,
+							  12});
+		/**
+		 а  б   в 	г 	д 	е 	ё   ж 	з 	и 	й 	к 	л 	м   н 	о 	п 	р 	с 	т 	у   ф   х 	ц 	ч 	ш 	щ 	ъ
+		 ы 	ь 	э 	ю   я
+		 */
+		putPriorities("абвгдеёжзийклмнопрстуфхцчшщъыьэюя",
+					  new int[]{10, 4, 4, 7, 4, 7, 14, 9, 9, 6, 7, 5, 4, 4, 4, 10, 8, 10, 12, 5, 9, 15, 14, 14, 13, 10,
+							  10, 0, 10, 0, 10, 12, 11});
+		/**
+		 ґ  і   ї   є
+		 */
+		putPriorities("ґіїє", new int[]{15, 14, 18, 12});
+
+		for (char ch = 0; ch < TABLE_SIZE; ++ch){
+			if (!Character.isLetter(ch)) continue;
+			String lowerCase = Character.toString(ch).toLowerCase();
+			if (lowerCase.length() == 1 && lowerCase.charAt(0) < TABLE_SIZE &&
+					PRIORITIES[lowerCase.charAt(0)] > 0)
+				KEYS[ch] = lowerCase.charAt(0);
+		}
+	}
+
+	private final char[] keys = new char[MAX_LEFT_CHARACTER_COUNT];
+	private final int[] scores = new int[MAX_LEFT_CHARACTER_COUNT];
+	private final int[] positions = new int[MAX_LEFT_CHARACTER_COUNT];
+	private int count;
+
+	private static void putPriorities(String alphabet, int[] priorities){
+		for (int i = 0; i < alphabet.length(); ++i)
+			PRIORITIES[alphabet.charAt(i)] = (byte) priorities[i];
+	}
+
+	private static char keyOf(char ch){
+		if (ch < TABLE_SIZE)
+			return KEYS[ch];
+		if (!Character.isLetter(ch))
+			return 0;
+		//e.g. KELVIN SIGN is lowercased to 'k'
+		char lowerCase = Character.toLowerCase(ch);
+		return (lowerCase < TABLE_SIZE && PRIORITIES[lowerCase] > 0) ? lowerCase : 0;
+	}
+
+	/**
+	 * @param text   : chars of a word
+	 * @param start  : index of the first char of a word
+	 * @param length : length of a word
+	 * @return offset of a letter to emphasize
+	 */
+	public int score(char[] text, int start, int length){
+		count = 0;
+		int middle = length / 2;
+		for (int i = 0; i < Math.min(MAX_LEFT_CHARACTER_COUNT, length); ++i){
+			char key = keyOf(text[start + i]);
+			if (key == 0) continue;
+
+			int slot = find(key);
+			int score = PRIORITIES[key] * 100 / Math.max(1, Math.abs(middle - i));
+			if (slot == count){
+				keys[count++] = key;
+				scores[slot] = score;
+			} else {
+				scores[slot] = (scores[slot] < score) ? score : 0;
+			}
+			positions[slot] = i;
+			if (i + 1 < length && text[start + i] == text[start + i + 1])
+				scores[slot] *= 4;
+		}
+
+		int resInd = middle;
+		int mmax = 0;
+		int resOrder = Integer.MAX_VALUE;
+		for (int slot = 0; slot < count; ++slot){
+			int order = (keys[slot] & BUCKET_MASK) * MAX_LEFT_CHARACTER_COUNT + slot;
+			if (mmax < scores[slot] || (mmax == scores[slot] && mmax > 0 && order < resOrder)){
+				mmax = scores[slot];
+				resInd = positions[slot];
+				resOrder = order;
+			}
+		}
+		return resInd;
+	}
+
+	public int score(TokenBuffer tokens, int index){
+		return score(tokens.getText(), tokens.getStart(index), tokens.getLength(index));
+	}
+
+	private int find(char key){
+		int slot = 0;
+		while (slot < count && keys[slot] != key)
+			++slot;
+		return slot;
+	}
+}
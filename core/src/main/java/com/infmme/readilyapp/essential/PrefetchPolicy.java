@@ -0,0 +1,126 @@
+package com.infmme.readilyapp.essential;
+
+/**
+ * Decides how many chunks are parsed ahead of the reader.
+ * Depth is enough to parse the next chunk while the queued ones are being read at current WPM,
+ * parse time and size of a chunk are averaged over parsed chunks.
+ * Queued chunks never take more than a share of free heap.
+ * Stalls, when the reader waits for a chunk, are counted to check the policy.
+ */
+public class PrefetchPolicy {
+
+	public static final int MIN_DEPTH = 1;
+	/**
+	 * Weight of the last chunk in averages
+	 */
+	private static final float AVERAGE_WEIGHT = 0.25f;
+	/**
+	 * Parse time is multiplied by it, it varies from chunk to chunk
+	 */
+	private static final float LATENCY_MARGIN = 2f;
+	/**
+	 * Queued chunks take at most 1/MEMORY_SHARE of free heap
+	 */
+	private static final int MEMORY_SHARE = 8;
+
+	private final int maxDepth;
+	private volatile int wpm;
+	private volatile float parseMillis = 0;
+	private volatile float chunkWords = 0;
+	private volatile float chunkBytes = 0;
+	private volatile int parsedCount = 0;
+
+	private volatile int stallCount = 0;
+	private volatile long stallMillis = 0;
+	private long stallStart = -1;
+
+	/**
+	 * @param maxDepth : max count of queued chunks
+	 * @param wpm      : initial reading speed
+	 */
+	public PrefetchPolicy(int maxDepth, int wpm){
+		this.maxDepth = Math.max(maxDepth, MIN_DEPTH);
+		setWPM(wpm);
+	}
+
+	public void setWPM(int wpm){
+		this.wpm = Math.max(wpm, 1);
+	}
+
+	/**
+	 * Called by parsing thread after every chunk
+	 *
+	 * @param millis : time it took to read and parse a chunk
+	 * @param words  : count of words in a chunk
+	 * @param bytes  : approximate memory taken by a chunk
+	 */
+	public void onChunkParsed(long millis, int words, long bytes){
+		if (parsedCount++ == 0){
+			parseMillis = millis;
+			chunkWords = words;
+			chunkBytes = bytes;
+		} else {
+			parseMillis += AVERAGE_WEIGHT * (millis - parseMillis);
+			chunkWords += AVERAGE_WEIGHT * (words - chunkWords);
+			chunkBytes += AVERAGE_WEIGHT * (bytes - chunkBytes);
+		}
+	}
+
+	/**
+	 * @return count of chunks to keep parsed ahead
+	 */
+	public int getDepth(){
+		if (parsedCount == 0 || chunkWords < 1)
+			return maxDepth;
+		float readingMillis = chunkWords * 60000f / wpm;
+		int depth = 1 + (int) Math.ceil(LATENCY_MARGIN * parseMillis / readingMillis);
+		if (chunkBytes > 0){
+			Runtime runtime = Runtime.getRuntime();
+			long freeMemory = runtime.maxMemory() - runtime.totalMemory() + runtime.freeMemory();
+			depth = (int) Math.min(depth, freeMemory / MEMORY_SHARE / chunkBytes);
+		}
+		return Math.max(MIN_DEPTH, Math.min(maxDepth, depth));
+	}
+
+	/**
+	 * Called by the reader when the next chunk isn't parsed yet, repeated calls are the same stall
+	 *
+	 * @param now : current time in ms
+	 */
+	public void onStall(long now){
+		if (stallStart < 0){
+			stallStart = now;
+			stallCount++;
+		}
+	}
+
+	/**
+	 * Called by the reader when it gets the next chunk
+	 *
+	 * @param now : current time in ms
+	 */
+	public void onChunkReceived(long now){
+		if (stallStart >= 0){
+			stallMillis += now - stallStart;
+			stallStart = -1;
+		}
+	}
+
+	public int getStallCount(){
+		return stallCount;
+	}
+
+	public long getStallMillis(){
+		return stallMillis;
+	}
+
+	public float getParseMillis(){
+		return parseMillis;
+	}
+
+	@Override
+	public String toString(){
+		return "PrefetchPolicy{depth " + getDepth() + ", wpm " + wpm + ", parse " + Math.round(parseMillis) +
+				" ms, words " + Math.round(chunkWords) + ", stalls " + stallCount + " (" + stallMillis + " ms)}";
+	}
+}
@@ -0,0 +1,168 @@
+package com.infmme.readilyapp.essential;
+
+/**
+ * One-pass replacement of the normalize() chain which used to live in TextParser:
+ * whitespace collapsing, clearing from repetitions, removing spaces before punctuation,
+ * inserting spaces after punctuation and handling abbreviations.
+ * Every step is a tiny state machine, chars are pushed through all of them
+ * and the result is written to a single StringBuilder, so output is exactly the same as before.
+ */
+public class TextNormalizer {
+
+	private static final int NONE = -1;
+
+	private final StringBuilder res;
+
+	//clearing from repetitions
+	private boolean previousWhitespace;
+	private int previousSpecial = NONE;
+	//removing spaces before punctuation
+	private boolean pendingSpace;
+	//inserting spaces after punctuation: char waiting for the next one
+	private int previousChar = NONE;
+	//handling abbreviations: chars at i - 1, i, i + 1 while waiting for i + 2
+	private int beforeFirst = NONE;
+	private int first = NONE;
+	private int second = NONE;
+
+	private TextNormalizer(int capacity){
+		res = new StringBuilder(capacity);
+	}
+
+	public static String normalize(String text){
+		int length = text.length();
+		TextNormalizer normalizer = new TextNormalizer(length + (length >> 4) + 16);
+		for (int i = 0; i < length; ++i)
+			normalizer.collapseWhitespace(text.charAt(i));
+		normalizer.flush();
+		return normalizer.res.toString();
+	}
+
+	/**
+	 * Same set of chars as java.util.regex "\\s"
+	 */
+	static boolean isWhitespace(char ch){
+		switch (ch){
+			case ' ':
+			case '\t':
+			case '\n':
+			case '\u000B':
+			case '\f':
+			case '\r':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return true if ch is contained in TextParser.makeMeSpecial
+	 */
+	static boolean isSpecial(char ch){
+		switch (ch){
+			case ' ':
+			case '"':
+			case '(':
+				return true;
+			default:
+				return isPunctuation(ch);
+		}
+	}
+
+	/**
+	 * @return true if ch is contained in makeMeSpecial.substring(1, 9) + ")"
+	 */
+	static boolean isPunctuation(char ch){
+		switch (ch){
+			case '.':
+			case '!':
+			case '?':
+			case '-':
+			case '—':
+			case ':':
+			case ';':
+			case ',':
+			case ')':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private void collapseWhitespace(char ch){
+		if (isWhitespace(ch)){
+			if (!previousWhitespace){
+				previousWhitespace = true;
+				clearFromRepetitions(' ');
+			}
+		} else {
+			previousWhitespace = false;
+			clearFromRepetitions(ch);
+		}
+	}
+
+	private void clearFromRepetitions(char ch){
+		if (isSpecial(ch)){
+			if (ch != previousSpecial){
+				previousSpecial = ch;
+				removeSpacesBeforePunctuation(ch);
+			}
+		} else {
+			previousSpecial = NONE;
+			removeSpacesBeforePunctuation(ch);
+		}
+	}
+
+	private void removeSpacesBeforePunctuation(char ch){
+		if (ch == ' '){
+			if (pendingSpace)
+				insertSpacesAfterPunctuation(' ');
+			pendingSpace = true;
+		} else if (isPunctuation(ch)){
+			pendingSpace = false;
+			insertSpacesAfterPunctuation(ch);
+		} else {
+			if (pendingSpace){
+				pendingSpace = false;
+				insertSpacesAfterPunctuation(' ');
+			}
+			insertSpacesAfterPunctuation(ch);
+		}
+	}
+
+	private void insertSpacesAfterPunctuation(char ch){
+		if (previousChar != NONE){
+			handleAbbreviations((char) previousChar);
+			if (isPunctuation((char) previousChar) && Character.isLetter(ch))
+				handleAbbreviations(' ');
+		}
+		previousChar = ch;
+	}
+
+	private void handleAbbreviations(char ch){
+		if (first != NONE && second != NONE){
+			if (!(beforeFirst == '.' && ch == '.'))
+				res.append((char) first);
+			beforeFirst = first;
+			first = second;
+			second = ch;
+		} else if (first != NONE){
+			second = ch;
+		} else {
+			first = ch;
+		}
+	}
+
+	private void flush(){
+		if (pendingSpace){
+			pendingSpace = false;
+			insertSpacesAfterPunctuation(' ');
+		}
+		if (previousChar != NONE)
+			handleAbbreviations((char) previousChar);
+		if (first != NONE)
+			res.append((char) first);
+		if (second != NONE)
+			res.append((char) second);
+	}
+}
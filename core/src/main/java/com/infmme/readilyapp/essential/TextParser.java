@@ -0,0 +1,168 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.readable.Readable;
+import com.infmme.readilyapp.util.StringUtils;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class TextParser implements Serializable, Callable<TextParser> {
+
+	/**
+	 * Version of parsing results, it has to be increased when they change, so cached chunks are dropped
+	 */
+	public static final int VERSION = 1;
+	public static final int RESULT_CODE_OK = 0;
+	public static final int RESULT_CODE_EMPTY_CLIPBOARD = 1;
+	public static final int RESULT_CODE_WRONG_EXT = 2;
+	public static final int RESULT_CODE_WTF = 3;
+	public static final int RESULT_CODE_CANT_FETCH = 4;
+	public static final String makeMeSpecial =
+			" " + "." + "!" + "?" + "-" + "—" + ":" + ";" + "," + '\"' + "(" + ")";
+
+	private Readable readable;
+	private int lengthPreference;
+	private int resultCode;
+
+	public TextParser(Readable readable){
+		this.readable = readable;
+		lengthPreference = 13; //TODO:implement it optional
+	}
+
+	public static String findLink(Pattern pattern, String text){
+		if (!text.isEmpty()){
+			Matcher matcher = pattern.matcher(text);
+			if (matcher.find()){ return matcher.group(); }
+		}
+		return null;
+	}
+
+	/**
+	 * @return pattern to detect links in text
+	 */
+	public static Pattern compilePattern(){
+		return Pattern.compile(
+				"\\b(((ht|f)tp(s?)\\:\\/\\/|~\\/|\\/)|www.)" +
+						"(\\w+:\\w+@)?(([-\\w]+\\.)+(com|org|net|gov" +
+						"|mil|biz|info|mobi|name|aero|jobs|museum" +
+						"|travel|edu|[a-z]{2}))(:[\\d]{1,5})?" +
+						"(((\\/([-\\w~!$+|.,=]|%[a-f\\d]{2})+)+|\\/)+|\\?|#)?" +
+						"((\\?([-\\w~!$+|.,*:]|%[a-f\\d{2}])+=?" +
+						"([-\\w~!$+|.,*:=]|%[a-f\\d]{2})*)" +
+						"(&(?:[-\\w~!$+|.,*:]|%[a-f\\d{2}])+=?" +
+						"([-\\w~!$+|.,*:=]|%[a-f\\d]{2})*)*)*" +
+						"(#([-\\w~!$+|.,*:=]|%[a-f\\d]{2})*)?\\b"
+							  );
+	}
+
+	public int getResultCode(){
+		return resultCode;
+	}
+
+	public void setResultCode(int resultCode){
+		this.resultCode = resultCode;
+	}
+
+	public void process(){
+		if (readable.isParsed()){
+			checkResult();
+			return;
+		}
+		normalize(readable);
+		cutLongWords(readable);
+		readable.setTokens(TokenBuffer.tokenize(readable.getText()));
+		buildDelayList(readable);
+		buildEmphasis(readable);
+		checkResult();
+		readable.onParsed();
+	}
+
+	public Readable getReadable(){
+		return readable;
+	}
+
+	public void setReadable(Readable readable){
+		this.readable = readable;
+	}
+
+	protected void normalize(Readable readable){
+		readable.setText(TextNormalizer.normalize(readable.getText()));
+	}
+
+	protected void cutLongWords(Readable readable){
+		List<String> res = new ArrayList<String>();
+		for (String word : readable.getText().split(" ")){
+			while (word.length() - 1 > lengthPreference){
+				int pos = lengthPreference - 2;
+				while (pos > 3 && !Character.isLetter(word.charAt(pos)))
+					--pos;
+				res.add(word.substring(0, pos) + "-");
+				word = word.substring(pos);
+			}
+			res.add(word);
+		}
+		StringBuilder sb = new StringBuilder();
+		for (String s : res)
+			sb.append(s).append(" ");
+		readable.setText(sb.substring(0, Math.max(0, sb.length() - 1)));
+	}
+
+	protected void buildDelayList(Readable readable){
+		TokenBuffer tokens = readable.getTokens();
+		char[] text = tokens.getText();
+		for (int i = 0; i < tokens.size(); ++i)
+			tokens.setDelayClasses(i, DelayClassifier.classify(text, tokens.getStart(i), tokens.getLength(i)));
+	}
+
+	protected void buildEmphasis(Readable readable){
+		TokenBuffer tokens = readable.getTokens();
+		EmphasisScorer scorer = new EmphasisScorer();
+		for (int index = 0; index < tokens.size(); ++index)
+			tokens.setEmphasis(index, scorer.score(tokens, index));
+	}
+
+	public void checkResult(){
+		int resultCode;
+		if (readable != null){
+			if (StringUtils.isEmpty(readable.getText()) ||
+					readable.getTokens().isEmpty() ||
+					readable.isProcessFailed()){
+				switch (this.getReadable().getType()){
+					case Readable.TYPE_CLIPBOARD:
+						resultCode = RESULT_CODE_EMPTY_CLIPBOARD;
+						break;
+					case Readable.TYPE_FILE:
+						resultCode = RESULT_CODE_WRONG_EXT;
+						break;
+					case Readable.TYPE_TXT:
+						resultCode = RESULT_CODE_WRONG_EXT;
+						break;
+					case Readable.TYPE_EPUB:
+						resultCode = RESULT_CODE_WRONG_EXT;
+						break;
+					case Readable.TYPE_NET:
+						resultCode = RESULT_CODE_CANT_FETCH;
+						break;
+					default:
+						resultCode = RESULT_CODE_WTF;
+						break;
+				}
+			} else {
+				resultCode = RESULT_CODE_OK;
+			}
+		} else {
+			resultCode = RESULT_CODE_WTF;
+		}
+		setResultCode(resultCode);
+	}
+
+
+	@Override
+	public TextParser call() throws Exception{
+		process();
+		return this;
+	}
+}
\ No newline at end of file
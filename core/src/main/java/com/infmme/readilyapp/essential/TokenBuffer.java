@@ -0,0 +1,242 @@
+package com.infmme.readilyapp.essential;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact storage of words of a single chunk.
+ * Words aren't kept as separate Strings, instead they point into one char array.
+ * Delay classes and emphasis positions are kept in primitive arrays, so nothing is boxed.
+ */
+public class TokenBuffer implements Serializable {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private char[] text;
+	private int textLength;
+	private int[] starts;
+	private int[] lengths;
+	private byte[] delayClasses;
+	private byte[] emphasis;
+	private int size;
+
+	public TokenBuffer(){
+		this(new char[0], 0);
+	}
+
+	private TokenBuffer(char[] text, int capacity){
+		this.text = text;
+		textLength = text.length;
+		capacity = Math.max(capacity, DEFAULT_CAPACITY);
+		starts = new int[capacity];
+		lengths = new int[capacity];
+		delayClasses = new byte[capacity];
+		emphasis = new byte[capacity];
+	}
+
+	/**
+	 * Splits text by spaces, empty words are skipped
+	 *
+	 * @param text : normalized text of a chunk
+	 * @return TokenBuffer, delay classes and emphasis are to be filled by TextParser
+	 */
+	public static TokenBuffer tokenize(String text){
+		char[] chars = text.toCharArray();
+		TokenBuffer result = new TokenBuffer(chars, chars.length / 6);
+		int start = -1;
+		for (int i = 0; i < chars.length; ++i){
+			if (chars[i] == ' '){
+				if (start > -1){
+					result.add(start, i - start);
+					start = -1;
+				}
+			} else if (start < 0){
+				start = i;
+			}
+		}
+		if (start > -1)
+			result.add(start, chars.length - start);
+		return result;
+	}
+
+	/**
+	 * Reads a buffer written by writeTo()
+	 */
+	public static TokenBuffer readFrom(DataInput in) throws IOException{
+		char[] chars = new char[in.readInt()];
+		for (int i = 0; i < chars.length; ++i)
+			chars[i] = in.readChar();
+		int count = in.readInt();
+		TokenBuffer result = new TokenBuffer(chars, count);
+		for (int i = 0; i < count; ++i)
+			result.starts[i] = in.readInt();
+		for (int i = 0; i < count; ++i)
+			result.lengths[i] = in.readInt();
+		in.readFully(result.delayClasses, 0, count);
+		in.readFully(result.emphasis, 0, count);
+		result.size = count;
+		return result;
+	}
+
+	/**
+	 * Same as readFrom(DataInput), arrays are copied in bulk, e.g. from a memory-mapped file
+	 */
+	public static TokenBuffer readFrom(ByteBuffer in){
+		char[] chars = new char[in.getInt()];
+		in.asCharBuffer().get(chars);
+		in.position(in.position() + 2 * chars.length);
+		int count = in.getInt();
+		TokenBuffer result = new TokenBuffer(chars, count);
+		in.asIntBuffer().get(result.starts, 0, count);
+		in.position(in.position() + 4 * count);
+		in.asIntBuffer().get(result.lengths, 0, count);
+		in.position(in.position() + 4 * count);
+		in.get(result.delayClasses, 0, count);
+		in.get(result.emphasis, 0, count);
+		result.size = count;
+		return result;
+	}
+
+	/**
+	 * Writes text and words with their delay classes and emphasis, every array is written as a whole,
+	 * so it can be read in bulk
+	 */
+	public void writeTo(DataOutput out) throws IOException{
+		out.writeInt(textLength);
+		for (int i = 0; i < textLength; ++i)
+			out.writeChar(text[i]);
+		out.writeInt(size);
+		for (int i = 0; i < size; ++i)
+			out.writeInt(starts[i]);
+		for (int i = 0; i < size; ++i)
+			out.writeInt(lengths[i]);
+		out.write(delayClasses, 0, size);
+		out.write(emphasis, 0, size);
+	}
+
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @return count of chars of the text, words of appended prefix included
+	 */
+	public int getTextLength(){
+		return textLength;
+	}
+
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	/**
+	 * @return approximate count of bytes taken by arrays of this buffer
+	 */
+	public long getMemorySize(){
+		return 2L * text.length + 10L * starts.length;
+	}
+
+	/**
+	 * @return backing array, words are located by getStart() and getLength()
+	 */
+	public char[] getText(){
+		return text;
+	}
+
+	public int getStart(int index){
+		return starts[index];
+	}
+
+	public int getLength(int index){
+		return lengths[index];
+	}
+
+	/**
+	 * @return bit mask of DelayClassifier classes found in a word
+	 */
+	public int getDelayClasses(int index){
+		return delayClasses[index];
+	}
+
+	public void setDelayClasses(int index, int classes){
+		delayClasses[index] = (byte) classes;
+	}
+
+	public int getEmphasis(int index){
+		return emphasis[index];
+	}
+
+	public void setEmphasis(int index, int position){
+		emphasis[index] = (byte) Math.min(position, Byte.MAX_VALUE);
+	}
+
+	public char charAt(int index, int offset){
+		return text[starts[index] + offset];
+	}
+
+	/**
+	 * Creates new String, so shouldn't be called on every word while reading
+	 */
+	public String getWord(int index){
+		return new String(text, starts[index], lengths[index]);
+	}
+
+	/**
+	 * Appends part of a word to StringBuilder without creating intermediate Strings
+	 *
+	 * @param sb    : StringBuilder to append to
+	 * @param index : index of a word
+	 * @param from  : offset in a word, inclusive
+	 * @param to    : offset in a word, exclusive
+	 * @return sb
+	 */
+	public StringBuilder appendTo(StringBuilder sb, int index, int from, int to){
+		return sb.append(text, starts[index] + from, to - from);
+	}
+
+	/**
+	 * Copies first words of another buffer to the end of this one (with their delay classes and emphasis)
+	 *
+	 * @param that  : buffer to copy from
+	 * @param count : max count of words to copy
+	 */
+	public void appendPrefix(TokenBuffer that, int count){
+		count = Math.min(count, that.size());
+		for (int i = 0; i < count; ++i){
+			int length = that.getLength(i);
+			ensureTextCapacity(textLength + length);
+			System.arraycopy(that.getText(), that.getStart(i), text, textLength, length);
+			add(textLength, length);
+			textLength += length;
+			delayClasses[size - 1] = that.delayClasses[i];
+			emphasis[size - 1] = that.emphasis[i];
+		}
+	}
+
+	private void add(int start, int length){
+		ensureCapacity(size + 1);
+		starts[size] = start;
+		lengths[size] = length;
+		size++;
+	}
+
+	private void ensureCapacity(int capacity){
+		if (capacity > starts.length){
+			int newCapacity = Math.max(capacity, starts.length * 2);
+			starts = Arrays.copyOf(starts, newCapacity);
+			lengths = Arrays.copyOf(lengths, newCapacity);
+			delayClasses = Arrays.copyOf(delayClasses, newCapacity);
+			emphasis = Arrays.copyOf(emphasis, newCapacity);
+		}
+	}
+
+	private void ensureTextCapacity(int capacity){
+		if (capacity > text.length){
+			text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.infmme.readilyapp.essential;
+
+/**
+ * Plans times at which words are shown. Every word is due at the previous due time plus its delay,
+ * not at the time it was actually shown plus its delay, so time spent on drawing words
+ * doesn't add up and real speed stays equal to WPM.
+ * If the reader falls too far behind (e.g. a long GC), it isn't rushed, the plan is restarted.
+ * Times are taken from a monotonic clock, e.g. SystemClock.uptimeMillis().
+ */
+public class WordScheduler {
+
+	/**
+	 * Lag after which the plan is restarted, in ms
+	 */
+	private static final long MAX_LAG = 500;
+
+	private boolean running = false;
+	private long dueTime;
+	/**
+	 * Sums over all played periods: delays of shown words and time actually taken by them
+	 */
+	private long plannedMillis = 0;
+	private long actualMillis = 0;
+	private long lastShownTime;
+	private long lastDelay;
+	private int restartCount = 0;
+
+	/**
+	 * Called when a word is shown
+	 *
+	 * @param now   : current time in ms
+	 * @param delay : time the word should stay on the screen, in ms
+	 * @return time to show the next word at, in ms
+	 */
+	public long next(long now, long delay){
+		if (!running){
+			running = true;
+			dueTime = now;
+		} else {
+			plannedMillis += lastDelay;
+			actualMillis += now - lastShownTime;
+			if (now - dueTime > MAX_LAG){
+				dueTime = now;
+				restartCount++;
+			}
+		}
+		lastShownTime = now;
+		lastDelay = delay;
+		dueTime += delay;
+		return dueTime;
+	}
+
+	/**
+	 * Called on pause, time of the pause isn't counted
+	 */
+	public void stop(){
+		running = false;
+	}
+
+	/**
+	 * @param wpm : configured WPM
+	 * @return WPM which was really achieved, it's equal to configured one if words were shown in time
+	 */
+	public int getAchievedWPM(int wpm){
+		if (actualMillis == 0)
+			return wpm;
+		return (int) (wpm * plannedMillis / actualMillis);
+	}
+
+	/**
+	 * @return count of times the reader fell behind by more than MAX_LAG
+	 */
+	public int getRestartCount(){
+		return restartCount;
+	}
+
+	@Override
+	public String toString(){
+		return "WordScheduler{planned " + plannedMillis + " ms, actual " + actualMillis + " ms, restarts " +
+				restartCount + "}";
+	}
+}
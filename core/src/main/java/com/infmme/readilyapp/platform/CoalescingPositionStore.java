@@ -0,0 +1,162 @@
+package com.infmme.readilyapp.platform;
+
+import com.infmme.readilyapp.database.DataBundle;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PositionStore which keeps changes in memory and writes them in batches by a background thread.
+ * Only the last change of every path is kept. Batch is written FLUSH_DELAY after its first change,
+ * or at once after flush(). Pending changes are visible to find() before they are written.
+ * Failed batch is kept and written again later, changes made meanwhile win over it.
+ * Rows are copied in and out, callers can change them freely.
+ */
+public abstract class CoalescingPositionStore implements PositionStore {
+
+	/**
+	 * Delay of writing after the first change of a batch, in ms
+	 */
+	public static final long FLUSH_DELAY = 2000;
+
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable){
+					Thread thread = new Thread(runnable, "PositionStore writer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run(){
+			writePending();
+		}
+	};
+	/**
+	 * Path to a row to save, null if the row is to be deleted
+	 */
+	private Map<String, DataBundle> pending = new LinkedHashMap<String, DataBundle>();
+	/**
+	 * Batch which is being written, empty if none
+	 */
+	private Map<String, DataBundle> writing = Collections.emptyMap();
+	private boolean flushScheduled = false;
+
+	/**
+	 * @return row stored by write(), null if there is no such path
+	 */
+	protected abstract DataBundle findStored(String path);
+
+	/**
+	 * Called by the background thread, should write all changes at once (e.g. in one transaction).
+	 * Failure is reported by a RuntimeException, the changes are written again then.
+	 *
+	 * @param changes : path to a row to save, null if the row is to be deleted
+	 */
+	protected abstract void write(Map<String, DataBundle> changes);
+
+	@Override
+	public DataBundle find(String path){
+		synchronized (this){
+			if (pending.containsKey(path))
+				return copy(pending.get(path));
+			if (writing.containsKey(path))
+				return copy(writing.get(path));
+		}
+		return findStored(path);
+	}
+
+	@Override
+	public void save(DataBundle dataBundle){
+		change(dataBundle.getPath(), new DataBundle(dataBundle));
+	}
+
+	@Override
+	public void delete(String path){
+		change(path, null);
+	}
+
+	@Override
+	public void flush(){
+		executor.execute(flushTask);
+	}
+
+	/**
+	 * Drops pending changes of the paths, e.g. when their rows are deleted bypassing the store.
+	 * Waits for a batch which is being written, so no change of the paths is written after return.
+	 */
+	public synchronized void cancel(Collection<String> paths){
+		boolean interrupted = false;
+		while (!writing.isEmpty()){
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		pending.keySet().removeAll(paths);
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private synchronized void change(String path, DataBundle dataBundle){
+		pending.put(path, dataBundle);
+		scheduleFlush();
+	}
+
+	private void scheduleFlush(){
+		if (!flushScheduled){
+			flushScheduled = true;
+			executor.schedule(flushTask, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private static DataBundle copy(DataBundle dataBundle){
+		return (dataBundle == null) ? null : new DataBundle(dataBundle);
+	}
+
+	private void writePending(){
+		Map<String, DataBundle> batch;
+		synchronized (this){
+			if (pending.isEmpty())
+				return;
+			batch = pending;
+			writing = batch;
+			pending = new LinkedHashMap<String, DataBundle>();
+			flushScheduled = false;
+		}
+		boolean written = false;
+		try {
+			write(batch);
+			written = true;
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		} finally {
+			synchronized (this){
+				if (!written)
+					restore(batch);
+				writing = Collections.emptyMap();
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Puts changes of a failed batch back before pending ones, changes of the same paths made later are kept
+	 */
+	private void restore(Map<String, DataBundle> batch){
+		Map<String, DataBundle> changes = new LinkedHashMap<String, DataBundle>(batch);
+		changes.keySet().removeAll(pending.keySet());
+		changes.putAll(pending);
+		pending = changes;
+		scheduleFlush();
+	}
+}
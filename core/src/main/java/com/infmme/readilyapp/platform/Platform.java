@@ -0,0 +1,33 @@
+package com.infmme.readilyapp.platform;
+
+import java.io.File;
+
+/**
+ * Everything readables need from the outer world.
+ * Implemented by ui module on top of Context, can be implemented by plain java code as well.
+ */
+public interface Platform {
+
+	/**
+	 * @param path : path or uri which came from intent
+	 * @return path to a local file or the argument itself if it can't be resolved
+	 */
+	public String resolvePath(String path);
+
+	/**
+	 * @return directory to store cached texts in
+	 */
+	public File getFilesDir();
+
+	/**
+	 * @return true if texts which don't come from files must be stored in getFilesDir()
+	 */
+	public boolean isCacheEnabled();
+
+	/**
+	 * @return directory to store parsed chunks in, null if they mustn't be stored
+	 */
+	public File getCacheDir();
+
+	public PositionStore getPositionStore();
+}
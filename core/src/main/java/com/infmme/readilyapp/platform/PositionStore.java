@@ -0,0 +1,24 @@
+package com.infmme.readilyapp.platform;
+
+import com.infmme.readilyapp.database.DataBundle;
+
+/**
+ * Storage of reading positions, one row per path
+ */
+public interface PositionStore {
+
+	/**
+	 * @param path : path of a readable
+	 * @return stored row or null if there is no such path
+	 */
+	public DataBundle find(String path);
+
+	public void save(DataBundle dataBundle);
+
+	public void delete(String path);
+
+	/**
+	 * Starts writing of pending changes, e.g. when a reader is closed. May return before they are written.
+	 */
+	public void flush();
+}
@@ -0,0 +1,51 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.platform.Platform;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Compiles books into CompiledBook in a background thread of the lowest priority, one book at a time
+ */
+public class BookCompiler {
+
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable){
+			Thread thread = new Thread(runnable, "BookCompiler");
+			thread.setPriority(Thread.MIN_PRIORITY);
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	/**
+	 * Paths of books which are scheduled, a book isn't scheduled twice
+	 */
+	private static final Set<String> scheduled = Collections.synchronizedSet(new HashSet<String>());
+
+	/**
+	 * @param source : book which isn't processed yet, it's used by the background thread only
+	 */
+	public static void schedule(final Platform platform, final FileStorable source){
+		if (source == null)
+			return;
+		final String path = source.getPath();
+		if (!scheduled.add(path))
+			return;
+		executor.execute(new Runnable() {
+			@Override
+			public void run(){
+				try {
+					CompiledBook.compile(platform, source);
+				} finally {
+					scheduled.remove(path);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,266 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.essential.TokenBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed chunks of a book kept on disk, so reopened book isn't decoded and parsed again.
+ * Every book has a file: a header with the key (path, size and modification time of a book, versions
+ * of the format and of TextParser) followed by records, one for each chunk, addressed by its byte position.
+ * File with a different key is overwritten, so a changed book or parser invalidates it.
+ */
+public class ChunkCache {
+
+	private static final int MAGIC = 0x52434331; //RCC1
+	private static final int FORMAT_VERSION = 2;
+	private static final String DIRECTORY_NAME = "chunks";
+	private static final String EXTENSION = ".chunks";
+	/**
+	 * Files of least recently opened books are deleted above this count
+	 */
+	private static final int MAX_FILE_COUNT = 32;
+	/**
+	 * Files which are open now, a file is written by one instance only
+	 */
+	private static final Set<File> openFiles = new HashSet<File>();
+
+	private final File cacheFile;
+	private final RandomAccessFile file;
+	/**
+	 * Byte position of a chunk in a book to offset of its record in the file
+	 */
+	private final Map<Long, Long> offsets = new HashMap<Long, Long>();
+	private boolean closed = false;
+
+	/**
+	 * Parsed chunk, its text is the text of tokens
+	 */
+	public static class Entry {
+		public final String carriedWord;
+		public final long length;
+		public final String lastWord;
+		public final TokenBuffer tokens;
+
+		/**
+		 * @param carriedWord : word which was carried from the previous chunk to the beginning of this one
+		 * @param length      : count of bytes the chunk was read from
+		 * @param lastWord    : word which is carried to the next chunk
+		 * @param tokens      : parsed words, without prefix of the next chunk
+		 */
+		public Entry(String carriedWord, long length, String lastWord, TokenBuffer tokens){
+			this.carriedWord = carriedWord;
+			this.length = length;
+			this.lastWord = lastWord;
+			this.tokens = tokens;
+		}
+	}
+
+	private ChunkCache(File cacheFile, RandomAccessFile file){
+		this.cacheFile = cacheFile;
+		this.file = file;
+	}
+
+	/**
+	 * @param cacheDir : directory to keep cache files in
+	 * @param book     : local file of a book
+	 * @return cache of a book, null if it can't be opened or it's open already
+	 */
+	public static ChunkCache open(File cacheDir, File book){
+		if (cacheDir == null || !book.isFile())
+			return null;
+		File directory = new File(cacheDir, DIRECTORY_NAME);
+		if (!directory.isDirectory() && !directory.mkdirs())
+			return null;
+		String path = book.getAbsolutePath();
+		File cacheFile = new File(directory, Integer.toHexString(path.hashCode()) + EXTENSION);
+		synchronized (openFiles){
+			if (!openFiles.add(cacheFile))
+				return null;
+		}
+		RandomAccessFile file = null;
+		try {
+			cacheFile.setLastModified(System.currentTimeMillis());
+			deleteOldFiles(directory);
+			file = new RandomAccessFile(cacheFile, "rw");
+			ChunkCache cache = new ChunkCache(cacheFile, file);
+			if (!cache.readHeader(path, book.length(), book.lastModified()))
+				cache.writeHeader(path, book.length(), book.lastModified());
+			return cache;
+		} catch (IOException e) {
+			e.printStackTrace();
+			if (file != null){
+				try {
+					file.close();
+				} catch (IOException ignored) {}
+			}
+			release(cacheFile);
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes cache file of a book unless it's open, e.g. when the book is compiled
+	 *
+	 * @param cacheDir : directory cache files are kept in, may be null
+	 * @param book     : local file of a book
+	 */
+	public static void delete(File cacheDir, File book){
+		if (cacheDir == null)
+			return;
+		File cacheFile = new File(new File(cacheDir, DIRECTORY_NAME),
+								  Integer.toHexString(book.getAbsolutePath().hashCode()) + EXTENSION);
+		synchronized (openFiles){
+			if (!openFiles.contains(cacheFile))
+				cacheFile.delete();
+		}
+	}
+
+	private static void release(File cacheFile){
+		synchronized (openFiles){
+			openFiles.remove(cacheFile);
+		}
+	}
+
+	private static void deleteOldFiles(File directory){
+		File[] files = directory.listFiles();
+		if (files == null || files.length < MAX_FILE_COUNT)
+			return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File lhs, File rhs){
+				long l = lhs.lastModified(), r = rhs.lastModified();
+				return (l < r) ? -1 : ((l == r) ? 0 : 1);
+			}
+		});
+		synchronized (openFiles){
+			for (int i = 0; i <= files.length - MAX_FILE_COUNT; ++i)
+				if (!openFiles.contains(files[i]))
+					files[i].delete();
+		}
+	}
+
+	/**
+	 * Reads header and indexes records, truncated last record is dropped
+	 *
+	 * @return false if the file is empty or belongs to another book or version
+	 */
+	private boolean readHeader(String path, long size, long modified) throws IOException{
+		if (file.length() == 0)
+			return false;
+		try {
+			file.seek(0);
+			if (file.readInt() != MAGIC || file.readInt() != FORMAT_VERSION ||
+					file.readInt() != TextParser.VERSION || !file.readUTF().equals(path) ||
+					file.readLong() != size || file.readLong() != modified)
+				return false;
+			long offset = file.getFilePointer();
+			long fileLength = file.length();
+			while (offset + 4 + 8 <= fileLength){
+				file.seek(offset);
+				int recordLength = file.readInt();
+				if (offset + 4 + recordLength > fileLength)
+					break;
+				offsets.put(file.readLong(), offset);
+				offset += 4 + recordLength;
+			}
+			file.setLength(offset);
+			return true;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	private void writeHeader(String path, long size, long modified) throws IOException{
+		offsets.clear();
+		file.setLength(0);
+		file.seek(0);
+		file.writeInt(MAGIC);
+		file.writeInt(FORMAT_VERSION);
+		file.writeInt(TextParser.VERSION);
+		file.writeUTF(path);
+		file.writeLong(size);
+		file.writeLong(modified);
+	}
+
+	public synchronized boolean contains(long bytePosition){
+		return offsets.containsKey(bytePosition);
+	}
+
+	/**
+	 * @param bytePosition : byte position of a chunk in a book
+	 * @return parsed chunk, null if it isn't cached
+	 */
+	public synchronized Entry get(long bytePosition){
+		Long offset = offsets.get(bytePosition);
+		if (offset == null || closed)
+			return null;
+		try {
+			file.seek(offset);
+			byte[] record = new byte[file.readInt()];
+			file.readFully(record);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+			in.readLong();
+			String carriedWord = in.readUTF();
+			long length = in.readLong();
+			String lastWord = in.readUTF();
+			return new Entry(carriedWord, length, lastWord, TokenBuffer.readFrom(in));
+		} catch (IOException e) {
+			e.printStackTrace();
+			offsets.remove(bytePosition);
+			return null;
+		}
+	}
+
+	/**
+	 * Appends a chunk, it replaces a chunk with the same byte position
+	 */
+	public synchronized void put(long bytePosition, Entry entry){
+		if (closed)
+			return;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(bytePosition);
+			out.writeUTF(entry.carriedWord);
+			out.writeLong(entry.length);
+			out.writeUTF(entry.lastWord);
+			entry.tokens.writeTo(out);
+			out.flush();
+
+			long offset = file.length();
+			file.seek(offset);
+			file.writeInt(bytes.size());
+			file.write(bytes.toByteArray());
+			offsets.put(bytePosition, offset);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	public synchronized void close(){
+		if (closed)
+			return;
+		closed = true;
+		try {
+			file.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		release(cacheFile);
+	}
+}
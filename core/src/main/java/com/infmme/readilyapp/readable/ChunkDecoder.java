@@ -0,0 +1,155 @@
+package com.infmme.readilyapp.readable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes a file chunk by chunk with a single CharsetDecoder.
+ * Bytes of a multibyte char which is split by a chunk boundary are carried over to the next chunk,
+ * so no char is corrupted and count of bytes behind every chunk is exact.
+ * Buffers are reused, so nothing is allocated while reading.
+ * Local files are memory-mapped, so seeking to any byte offset is O(1),
+ * other channels are read sequentially into a buffer.
+ */
+public class ChunkDecoder {
+
+	/**
+	 * null if whole file is mapped to bytes
+	 */
+	private final ReadableByteChannel channel;
+	private final CharsetDecoder decoder;
+	private final ByteBuffer bytes;
+	private final CharBuffer chars;
+	private final int bufferSize;
+	private boolean endOfInput = false;
+	private boolean flushed = false;
+
+	/**
+	 * Reads channel sequentially
+	 */
+	public ChunkDecoder(ReadableByteChannel channel, Charset charset, int bufferSize){
+		this(channel, ByteBuffer.allocate(bufferSize), charset, bufferSize);
+		bytes.flip();
+	}
+
+	/**
+	 * Decodes bytes which are already in memory, e.g. mapped file
+	 */
+	public ChunkDecoder(ByteBuffer bytes, Charset charset, int bufferSize){
+		this(null, bytes, charset, bufferSize);
+	}
+
+	private ChunkDecoder(ReadableByteChannel channel, ByteBuffer bytes, Charset charset, int bufferSize){
+		this.channel = channel;
+		this.bytes = bytes;
+		this.bufferSize = bufferSize;
+		decoder = charset.newDecoder()
+						 .onMalformedInput(CodingErrorAction.REPLACE)
+						 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+		chars = CharBuffer.allocate((int) Math.ceil(bufferSize * decoder.maxCharsPerByte()));
+	}
+
+	/**
+	 * Maps file channel to memory if it's possible, reads it sequentially otherwise
+	 */
+	public static ChunkDecoder open(FileChannel channel, Charset charset, int bufferSize){
+		try {
+			long size = channel.size();
+			if (size <= Integer.MAX_VALUE)
+				return new ChunkDecoder(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), charset, bufferSize);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return new ChunkDecoder(channel, charset, bufferSize);
+	}
+
+	/**
+	 * @param encoding : charset name, e.g. detected by FileStorable.guessCharset()
+	 * @param fallback : name of a charset to use instead of unsupported one
+	 * @return charset with given name or fallback one if it isn't supported
+	 */
+	public static Charset forName(String encoding, String fallback){
+		try {
+			return Charset.forName(encoding);
+		} catch (IllegalArgumentException e) {
+			return Charset.forName(fallback);
+		}
+	}
+
+	private boolean isMapped(){
+		return channel == null;
+	}
+
+	/**
+	 * Next read() starts from given byte offset, it should point to the beginning of a char
+	 *
+	 * @param position : byte offset in a file
+	 * @throws IOException if channel isn't a FileChannel
+	 */
+	public void seek(long position) throws IOException{
+		if (isMapped()){
+			bytes.limit(bytes.capacity());
+			bytes.position((int) Math.min(position, bytes.capacity()));
+		} else if (channel instanceof FileChannel){
+			((FileChannel) channel).position(position);
+			bytes.clear();
+			bytes.flip();
+		} else {
+			throw new IOException("Channel isn't seekable");
+		}
+		decoder.reset();
+		endOfInput = false;
+		flushed = false;
+	}
+
+	/**
+	 * Appends next chunk of decoded text, at most one buffer of bytes is read
+	 *
+	 * @param out : StringBuilder to append to
+	 * @return count of bytes which appended chars were decoded from, -1 if the end is reached
+	 * @throws IOException
+	 */
+	public int read(StringBuilder out) throws IOException{
+		if (flushed)
+			return -1;
+		int consumed = 0;
+		int appended = 0;
+		while (appended == 0 && !flushed){
+			if (!endOfInput)
+				fill();
+			int before = bytes.position();
+			chars.clear();
+			CoderResult result = decoder.decode(bytes, chars, endOfInput);
+			if (endOfInput && !result.isOverflow()){
+				decoder.flush(chars);
+				flushed = true;
+			}
+			consumed += bytes.position() - before;
+			chars.flip();
+			appended += chars.remaining();
+			out.append(chars);
+		}
+		return (appended == 0 && consumed == 0) ? -1 : consumed;
+	}
+
+	/**
+	 * Makes at most bufferSize bytes available for decoding
+	 */
+	private void fill() throws IOException{
+		if (isMapped()){
+			bytes.limit((int) Math.min((long) bytes.position() + bufferSize, bytes.capacity()));
+			endOfInput = bytes.limit() == bytes.capacity();
+		} else {
+			bytes.compact();
+			endOfInput = channel.read(bytes) == -1;
+			bytes.flip();
+		}
+	}
+}
@@ -0,0 +1,360 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.platform.Platform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Whole book parsed beforehand and kept in one binary file, which is memory-mapped when the book is opened,
+ * so opening doesn't depend on size or format of the book.
+ * The file consists of a header (key of the book like in ChunkCache, its type and title),
+ * an index of chunks (byte position and length in the book, offset of tokens in the file)
+ * and tokens of every chunk written by TokenBuffer.writeTo().
+ */
+public class CompiledBook {
+
+	static final int MAGIC = 0x52544231; //RTB1
+	static final int FORMAT_VERSION = 1;
+	private static final String DIRECTORY_NAME = "compiled";
+	private static final String EXTENSION = ".tokens";
+	/**
+	 * Byte position, length and offset of tokens of a chunk
+	 */
+	private static final int INDEX_ENTRY_SIZE = 8 + 8 + 4;
+	/**
+	 * Magic, versions, size and modification time of the book, length of its path
+	 */
+	private static final int HEADER_START_SIZE = 4 + 4 + 4 + 8 + 8 + 4;
+	/**
+	 * Paths of books which are being compiled, a book is compiled by one thread at a time
+	 */
+	private static final Set<String> compilingPaths = new HashSet<String>();
+
+	private final ByteBuffer buffer;
+	private final int type;
+	private final String title;
+	private final long sourceSize;
+	private final int chunkCount;
+	private final int indexStart;
+	private final int dataStart;
+
+	private CompiledBook(ByteBuffer buffer, int type, String title, long sourceSize, int chunkCount){
+		this.buffer = buffer;
+		this.type = type;
+		this.title = title;
+		this.sourceSize = sourceSize;
+		this.chunkCount = chunkCount;
+		indexStart = buffer.position();
+		dataStart = indexStart + chunkCount * INDEX_ENTRY_SIZE;
+	}
+
+	/**
+	 * @param cacheDir : directory compiled books are kept in, may be null
+	 * @param path     : absolute path of a book
+	 * @return file of a compiled book, null if there is no cache directory
+	 */
+	public static File getFile(File cacheDir, String path){
+		if (cacheDir == null)
+			return null;
+		return new File(new File(cacheDir, DIRECTORY_NAME), Integer.toHexString(path.hashCode()) + EXTENSION);
+	}
+
+	/**
+	 * Maps compiled book, only its header is read. Compiled book of a changed book is deleted.
+	 *
+	 * @param cacheDir : directory compiled books are kept in, may be null
+	 * @param book     : local file of a book
+	 * @return compiled book, null if the book isn't compiled
+	 */
+	public static CompiledBook open(File cacheDir, File book){
+		String path = book.getAbsolutePath();
+		File file = getFile(cacheDir, path);
+		if (file == null || !file.isFile())
+			return null;
+		try {
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+			ByteBuffer buffer;
+			try {
+				FileChannel channel = randomAccessFile.getChannel();
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				randomAccessFile.close(); //mapping stays valid
+			}
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION ||
+					buffer.getInt() != TextParser.VERSION || buffer.getLong() != book.length() ||
+					buffer.getLong() != book.lastModified() || !getString(buffer).equals(path)){
+				file.delete();
+				return null;
+			}
+			long sourceSize = book.length();
+			int type = buffer.getInt();
+			String title = getString(buffer);
+			int chunkCount = buffer.getInt();
+			if (chunkCount < 0 || chunkCount > buffer.remaining() / INDEX_ENTRY_SIZE)
+				throw new BufferUnderflowException();
+			return new CompiledBook(buffer, type, title, sourceSize, chunkCount);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		} catch (RuntimeException e) { //truncated or corrupted file
+			e.printStackTrace();
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * Reads whole book from the beginning and writes it compiled. Written file replaces the old one at once,
+	 * so it's never seen incomplete. Can be called by several threads, the same book is compiled once.
+	 * Compiled book replaces ChunkCache of the book, chunks aren't cached while compiling and the cache file
+	 * is deleted afterwards.
+	 *
+	 * @param source : book which isn't processed yet
+	 * @return true if the book is compiled, now or before
+	 */
+	public static boolean compile(Platform platform, FileStorable source){
+		source.process(platform);
+		source.detachChunkCache();
+		if (!source.isProcessed())
+			return false;
+		String path = new File(source.getPath()).getAbsolutePath();
+		synchronized (compilingPaths){
+			if (!compilingPaths.add(path)){
+				close(source);
+				return false;
+			}
+		}
+		try {
+			File file = getFile(platform.getCacheDir(), path);
+			if (file == null || (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()))
+				return false;
+			File book = new File(path);
+			if (!isCompiled(platform.getCacheDir(), book) && !write(source, path, book, file))
+				return false;
+			ChunkCache.delete(platform.getCacheDir(), book);
+			return true;
+		} finally {
+			close(source);
+			synchronized (compilingPaths){
+				compilingPaths.remove(path);
+			}
+		}
+	}
+
+	/**
+	 * Only the header is read through a small stream, the file isn't mapped. Compiled book of a changed book
+	 * is deleted.
+	 *
+	 * @return true if there is a compiled file of the book and it's up to date
+	 */
+	public static boolean isCompiled(File cacheDir, File book){
+		String path = book.getAbsolutePath();
+		File file = getFile(cacheDir, path);
+		if (file == null || !file.isFile())
+			return false;
+		try {
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file), HEADER_START_SIZE + 2 * path.length()));
+			try {
+				if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION && in.readInt() == TextParser.VERSION &&
+						in.readLong() == book.length() && in.readLong() == book.lastModified() &&
+						isString(in, path))
+					return true;
+			} finally {
+				in.close();
+			}
+		} catch (EOFException e) { //truncated file
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		file.delete();
+		return false;
+	}
+
+	private static void close(FileStorable source){
+		source.closeChunkCache();
+		try {
+			FileInputStream fis = source.getFileInputStream();
+			if (fis != null)
+				fis.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static boolean write(FileStorable source, String path, File book, File file){
+		long size = book.length();
+		long modified = book.lastModified();
+		File dataFile = new File(file.getPath() + ".data");
+		File tempFile = new File(file.getPath() + ".tmp");
+		try {
+			List<long[]> index = new ArrayList<long[]>();
+			DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile)));
+			try {
+				source.setBytePosition(0);
+				source.needsSeek = true;
+				FileStorable current = source;
+				current.readData();
+				new TextParser(current).process();
+				while (current.getTextBuilder().length() > 0){
+					index.add(new long[]{current.getBytePosition(), current.inputDataLength, data.size()});
+					current.getTokens().writeTo(data);
+					current = (FileStorable) current.getNext();
+					new TextParser(current).process();
+				}
+			} finally {
+				data.close();
+			}
+
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(TextParser.VERSION);
+				out.writeLong(size);
+				out.writeLong(modified);
+				putString(out, path);
+				out.writeInt(source.getType());
+				putString(out, (source.getTitle() == null) ? "" : source.getTitle());
+				out.writeInt(index.size());
+				for (long[] entry : index){
+					out.writeLong(entry[0]);
+					out.writeLong(entry[1]);
+					out.writeInt((int) entry[2]);
+				}
+				InputStream in = new BufferedInputStream(new FileInputStream(dataFile));
+				try {
+					byte[] bytes = new byte[FileStorable.BUFFER_SIZE];
+					int count;
+					while ((count = in.read(bytes)) > 0)
+						out.write(bytes, 0, count);
+				} finally {
+					in.close();
+				}
+			} finally {
+				out.close();
+			}
+			return tempFile.renameTo(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			dataFile.delete();
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Length is checked against the rest of the file, so a corrupted one doesn't make a huge array
+	 */
+	private static String getString(ByteBuffer buffer){
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining() / 2)
+			throw new BufferUnderflowException();
+		char[] chars = new char[length];
+		for (int i = 0; i < chars.length; ++i)
+			chars[i] = buffer.getChar();
+		return new String(chars);
+	}
+
+	/**
+	 * Length is compared first, so a corrupted one isn't read further
+	 */
+	private static boolean isString(DataInputStream in, String s) throws IOException{
+		if (in.readInt() != s.length())
+			return false;
+		for (int i = 0; i < s.length(); ++i)
+			if (in.readChar() != s.charAt(i))
+				return false;
+		return true;
+	}
+
+	private static void putString(DataOutputStream out, String s) throws IOException{
+		out.writeInt(s.length());
+		out.writeChars(s);
+	}
+
+	/**
+	 * @return type of the original book, e.g. Readable.TYPE_FB2
+	 */
+	public int getType(){
+		return type;
+	}
+
+	public String getTitle(){
+		return title;
+	}
+
+	public long getSourceSize(){
+		return sourceSize;
+	}
+
+	public int getChunkCount(){
+		return chunkCount;
+	}
+
+	/**
+	 * Last chunk may have zero length, e.g. a word carried from the previous chunk to the end of a book
+	 *
+	 * @return index of the chunk containing given byte position of the book, getChunkCount() if it's past the end
+	 */
+	public int findChunk(long bytePosition){
+		if (chunkCount == 0)
+			return chunkCount;
+		int low = 0, high = chunkCount - 1;
+		while (low < high){
+			int middle = (low + high + 1) >>> 1;
+			if (getBytePosition(middle) <= bytePosition)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		if (low == chunkCount - 1 && bytePosition != getBytePosition(low) &&
+				bytePosition >= getBytePosition(low) + getLength(low))
+			return chunkCount;
+		return low;
+	}
+
+	public long getBytePosition(int chunk){
+		return buffer.getLong(indexStart + chunk * INDEX_ENTRY_SIZE);
+	}
+
+	/**
+	 * @return count of bytes of the book the chunk was read from
+	 */
+	public long getLength(int chunk){
+		return buffer.getLong(indexStart + chunk * INDEX_ENTRY_SIZE + 8);
+	}
+
+	/**
+	 * Can be called by any thread
+	 *
+	 * @return parsed words of a chunk, copied from the mapped file
+	 */
+	public TokenBuffer getTokens(int chunk){
+		ByteBuffer in = buffer.duplicate();
+		in.position(dataStart + buffer.getInt(indexStart + chunk * INDEX_ENTRY_SIZE + 16));
+		return TokenBuffer.readFrom(in);
+	}
+}
@@ -0,0 +1,115 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.platform.Platform;
+import com.infmme.readilyapp.util.StringUtils;
+
+import java.io.File;
+
+/**
+ * Book read from its CompiledBook: chunks are taken already parsed, neither the book nor its encoding is read.
+ * Path and type are the ones of the original book, so the position is shared with it.
+ */
+public class CompiledFileStorable extends FileStorable {
+
+	private final CompiledBook book;
+	/**
+	 * Index of the chunk in the book, chunks are taken one by one, because the last one may have zero length
+	 */
+	private int chunk = -1;
+
+	public CompiledFileStorable(String path, CompiledBook book){
+		type = book.getType();
+		this.path = path;
+		this.book = book;
+		title = book.getTitle();
+	}
+
+	public CompiledFileStorable(CompiledFileStorable that){
+		super(that);
+		type = that.getType();
+		book = that.book;
+		chunk = that.chunk + 1;
+	}
+
+	/**
+	 * @param source : book which isn't processed yet
+	 * @return book read from its compiled file if there is such one, source otherwise
+	 */
+	public static FileStorable wrap(Platform platform, FileStorable source){
+		String path = platform.resolvePath(source.getPath());
+		if (path == null)
+			return source;
+		CompiledBook book = CompiledBook.open(platform.getCacheDir(), new File(path));
+		if (book == null)
+			return source;
+		return new CompiledFileStorable(path, book);
+	}
+
+	@Override
+	public void process(Platform platform){
+		fileSize = book.getSourceSize();
+		createRowData(platform);
+		processed = true;
+	}
+
+	@Override
+	public void readData(){
+		readChunk();
+	}
+
+	/**
+	 * Saved position which isn't a start of a chunk is moved to the start of its chunk,
+	 * words of the chunk before the saved position are added to the saved word position
+	 */
+	@Override
+	protected void readChunk(){
+		boolean resuming = chunk < 0;
+		if (resuming)
+			chunk = book.findChunk(bytePosition);
+		if (chunk < book.getChunkCount()){
+			TokenBuffer tokens = book.getTokens(chunk);
+			long chunkStart = book.getBytePosition(chunk);
+			if (resuming && bytePosition > chunkStart)
+				position += countWordsBefore(tokens, bytePosition - chunkStart, book.getLength(chunk));
+			bytePosition = chunkStart;
+			setParsedChunk(tokens, book.getLength(chunk), "");
+		} else {
+			inputDataLength = 0;
+			setText("");
+		}
+	}
+
+	@Override
+	protected void seek(long bytePosition){}
+
+	/**
+	 * Byte offsets of words aren't kept, so offset in text is taken proportionally to offset in the chunk
+	 *
+	 * @param offset : count of bytes of the chunk before the position
+	 * @param length : count of bytes of the chunk
+	 * @return count of words which start before the position
+	 */
+	static int countWordsBefore(TokenBuffer tokens, long offset, long length){
+		if (length <= 0)
+			return 0;
+		long textOffset = tokens.getTextLength() * Math.min(offset, length) / length;
+		int count = 0;
+		while (count < tokens.size() && tokens.getStart(count) < textOffset)
+			count++;
+		return count;
+	}
+
+	@Override
+	public Readable getNext(){
+		return prepareNext(new CompiledFileStorable(this));
+	}
+
+	@Override
+	protected void makeHeader(){
+		if (StringUtils.isEmpty(title))
+			super.makeHeader();
+		else
+			header = title;
+	}
+}
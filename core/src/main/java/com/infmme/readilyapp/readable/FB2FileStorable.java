@@ -0,0 +1,136 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.platform.Platform;
+import com.infmme.readilyapp.util.StringUtils;
+import com.infmme.readilyapp.xmlparser.XMLEvent;
+import com.infmme.readilyapp.xmlparser.XMLParser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * created on 7/20/14 by infm. Enjoy ;)
+ */
+public class FB2FileStorable extends FileStorable {
+
+	/**
+	 * Tags enclosing text of a book. Chunks end only at ends of paragraphs, so saved position is always
+	 * a boundary between paragraphs and parsing resumes inside these tags (deeper sections don't affect the text).
+	 */
+	private static final List<String> RESUME_TAG_PATH = Arrays.asList("FictionBook", "body");
+	/**
+	 * Images are kept as base64 in these tags, they take most of the file and are never read
+	 */
+	private static final String[] IGNORED_TAGS = {"binary"};
+
+	private XMLParser parser;
+
+	public FB2FileStorable(String path){
+		type = TYPE_FB2;
+		this.path = path;
+	}
+
+	public FB2FileStorable(FB2FileStorable that){
+		super(that);
+		type = TYPE_FB2;
+		parser = that.getParser();
+	}
+
+	public XMLParser getParser() {
+		return parser;
+	}
+
+	@Override
+	public void process(Platform platform){
+		path = platform.resolvePath(path);
+		if (path == null){
+			return;
+		}
+		try {
+			File file = new File(path);
+			FileInputStream encodingHelper = new FileInputStream(file);
+			encoding = guessCharset(encodingHelper);
+			encodingHelper.close();
+
+			fileInputStream = new FileInputStream(file);
+			fileSize = file.length();
+			createRowData(platform);
+			openChunkCache(platform, file);
+
+			parser = new XMLParser();
+			parser.setIgnoredTags(IGNORED_TAGS);
+			parser.setInput(fileInputStream, encoding, bytePosition,
+							(bytePosition > 0) ? RESUME_TAG_PATH : Collections.<String>emptyList());
+			processed = true;
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	protected void readChunk(){
+		setText("");
+		try {
+			if (parser == null) { return; }
+			long startPosition = parser.getBytePosition();
+			boolean needTitle = StringUtils.isEmpty(title);
+			XMLEvent event;
+
+			do {
+				event = parser.next();
+				if (event.getType() == XMLParser.CONTENT){
+					String contentType = event.getContentType();
+					if (!StringUtils.isEmpty(contentType)){
+						if (needTitle && contentType.equals("book-title"))
+							title = event.getContent();
+						if (contentType.equals("p"))
+							event.appendContentTo(text);
+					} else { //TODO: handle this situation carefully
+						event.appendContentTo(text);
+					}
+					text.append(" ");
+				}
+			} while (event.getType() != XMLParser.DOCUMENT_CLOSE && !isChunkEnd(event));
+			inputDataLength = parser.getBytePosition() - startPosition;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	protected void seek(long bytePosition) throws IOException{
+		if (parser != null)
+			parser.setInput(fileInputStream, encoding, bytePosition,
+							(bytePosition > 0) ? RESUME_TAG_PATH : Collections.<String>emptyList());
+	}
+
+	/**
+	 * Chunk is never ended inside a paragraph, even a long one: the tag path of such a position isn't stored,
+	 * so the rest of the paragraph wouldn't be read as text on resume
+	 */
+	private boolean isChunkEnd(XMLEvent event){
+		return text.length() >= BUFFER_SIZE && event.getType() == XMLParser.TAG_CLOSE &&
+				event.getTagName().equals("p");
+	}
+
+	@Override
+	public Readable getNext(){
+		return prepareNext(new FB2FileStorable(this));
+	}
+
+	@Override
+	protected void makeHeader(){
+		if (StringUtils.isEmpty(title)){
+			super.makeHeader();
+		} else {
+			header = title;
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.database.DataBundle;
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.platform.Platform;
+import com.infmme.readilyapp.util.StringUtils;
+import org.mozilla.universalchardet.UniversalDetector;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+/**
+ * Created by infm on 6/13/14. Enjoy ;)
+ */
+abstract public class FileStorable extends Storable {
+
+	public static final HashMap<String, Integer> extensionsMap = new HashMap<String, Integer>();
+	public static final int BUFFER_SIZE = 4096;
+	public static final int LAST_WORD_PREFIX_SIZE = 10;
+
+	protected FileInputStream fileInputStream;
+	protected String lastWord = "";
+	protected long inputDataLength;
+	protected long fileSize;
+	protected String encoding = "";
+	protected transient ChunkCache chunkCache;
+	/**
+	 * Word carried from the previous chunk, it's a part of the cache key
+	 */
+	protected String carriedWord = "";
+	/**
+	 * True if the chunk is taken from chunkCache
+	 */
+	protected boolean parsed;
+	/**
+	 * True if reading from a file has to start with seek(), because previous chunks weren't read
+	 */
+	protected boolean needsSeek;
+
+	static{
+		extensionsMap.put(Constants.EXTENSION_TXT, Readable.TYPE_TXT);
+		extensionsMap.put(Constants.EXTENSION_EPUB, Readable.TYPE_EPUB);
+		extensionsMap.put(Constants.EXTENSION_FB2, Readable.TYPE_FB2);
+	}
+
+	public FileStorable(){}
+
+	public FileStorable(FileStorable that){
+		super(that);
+		fileInputStream = that.getFileInputStream();
+		fileSize = that.getFileSize();
+		encoding = that.getEncoding();
+		chunkCache = that.chunkCache;
+	}
+
+	public static int getIntentType(String intentPath){
+		String extension = getExtension(intentPath);
+		if (isExtensionValid(extension)){ return extensionsMap.get(extension); }
+		return -1;
+	}
+
+	public static boolean isExtensionValid(String extension){
+		return extensionsMap.containsKey(extension);
+	}
+
+	/**
+	 * Same as FileUtils.getExtension() of aFileChooser
+	 */
+	public static String getExtension(String path){
+		if (path == null){ return null; }
+		int dot = path.lastIndexOf('.');
+		if (dot >= 0){ return path.substring(dot); }
+		return "";
+	}
+
+	public static String guessCharset(InputStream is) throws IOException{
+		UniversalDetector detector = new UniversalDetector(null);
+		byte[] buf = new byte[Constants.ENCODING_HELPER_BUFFER_SIZE];
+		int nread;
+		while ((nread = is.read(buf)) > 0 && !detector.isDone()) {
+			detector.handleData(buf, 0, nread);
+		}
+		detector.dataEnd();
+		String encoding = detector.getDetectedCharset();
+		detector.reset();
+		if (encoding != null)
+			return encoding;
+		return Constants.DEFAULT_ENCODING;
+	}
+
+	/**
+	 * Reads next chunk, it's taken from the cache if it was parsed before
+	 */
+	@Override
+	public void readData(){
+		if (readCachedData())
+			return;
+		if (needsSeek){
+			try {
+				seek(bytePosition);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			needsSeek = false;
+		}
+		readChunk();
+	}
+
+	/**
+	 * Reads next chunk from a file
+	 */
+	protected abstract void readChunk();
+
+	/**
+	 * Next readChunk() starts from given byte position
+	 */
+	protected abstract void seek(long bytePosition) throws IOException;
+
+	protected void openChunkCache(Platform platform, File file){
+		chunkCache = ChunkCache.open(platform.getCacheDir(), file);
+	}
+
+	private boolean readCachedData(){
+		if (chunkCache == null)
+			return false;
+		ChunkCache.Entry entry = chunkCache.get(bytePosition);
+		if (entry == null || !entry.carriedWord.equals(carriedWord))
+			return false;
+		setParsedChunk(entry.tokens, entry.length, entry.lastWord);
+		return true;
+	}
+
+	/**
+	 * Takes chunk which is already parsed, TextParser won't parse it again
+	 */
+	protected void setParsedChunk(TokenBuffer tokens, long length, String lastWord){
+		this.tokens = tokens;
+		text = new StringBuilder(tokens.getTextLength()).append(tokens.getText(), 0, tokens.getTextLength());
+		inputDataLength = length;
+		this.lastWord = lastWord;
+		parsed = true;
+	}
+
+	@Override
+	public boolean isParsed(){
+		return parsed;
+	}
+
+	@Override
+	public void onParsed(){
+		if (chunkCache != null && !parsed)
+			chunkCache.put(bytePosition, new ChunkCache.Entry(carriedWord, inputDataLength, lastWord, tokens));
+	}
+
+	public FileInputStream getFileInputStream(){
+		return fileInputStream;
+	}
+
+	public long getFileSize(){
+		return fileSize;
+	}
+
+	public String getEncoding(){
+		return encoding;
+	}
+
+	/**
+	 * must be called before TextParser.process();
+	 */
+	public void cutLastWord(){
+		String textString = text.toString();
+		int index = textString.lastIndexOf(' ') + 1;
+		lastWord = textString.substring(index);
+		text = new StringBuilder(textString.substring(0, index));
+	}
+
+	public void copyTokensPrefix(Readable next){
+		tokens.appendPrefix(next.getTokens(), LAST_WORD_PREFIX_SIZE);
+	}
+
+	protected void createRowData(Platform platform){
+		rowData = takeRowData(platform);
+		if (rowData != null){
+			position = rowData.getPosition();
+			bytePosition = rowData.getBytePosition();
+		}
+	}
+
+	public FileStorable prepareNext(FileStorable result){
+		result.setBytePosition(bytePosition + inputDataLength);
+		result.carriedWord = lastWord;
+		result.needsSeek = needsSeek || parsed;
+		result.readData();
+		if (StringUtils.isEmpty(result.getText())){
+			try {
+				FileInputStream fis = result.getFileInputStream();
+				if (fis != null)
+					fis.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		if (!result.isParsed()){
+			result.cutLastWord();
+			result.insertLastWord(lastWord);
+		}
+		return result;
+	}
+
+	@Override
+	public int calcProgress(int pos, long approxCharCount){
+		return Math.min((int) (100f * (bytePosition + approxCharCount) / fileSize + .5f), 99);
+	}
+
+	@Override
+	public void onClose(Platform platform, boolean isCompleted, boolean storeComplete){
+		super.onClose(platform, isCompleted, storeComplete);
+		closeChunkCache();
+	}
+
+	public void closeChunkCache(){
+		if (chunkCache != null)
+			chunkCache.close();
+	}
+
+	/**
+	 * Closes the cache, chunks read later aren't taken from it or put into it
+	 */
+	public void detachChunkCache(){
+		closeChunkCache();
+		chunkCache = null;
+	}
+
+	@Override
+	public DataBundle createInsertionData(){
+		DataBundle dataBundle = super.createInsertionData();
+		dataBundle.setPosition(position);
+		dataBundle.setBytePosition(bytePosition);
+		return dataBundle;
+	}
+
+	protected boolean doesHaveLetters(StringBuilder text){
+		for (Character ch : text.toString().toCharArray())
+			if (Character.isLetter(ch)) return true;
+		return false;
+	}
+}
@@ -1,6 +1,6 @@
 package com.infmme.readilyapp.readable;
 
-import android.content.Context;
+import com.infmme.readilyapp.platform.Platform;
 
 /**
  * Created by infm on 7/3/14. Enjoy ;)
@@ -25,15 +25,15 @@ public class RawReadable extends Storable {
 	}
 
 	@Override
-	public void process(Context context){
+	public void process(Platform platform){
 		if (reallyStorable){
 			makeHeader();
-			path = context.getFilesDir() + "/" + cleanFileName(header) + ".txt";
-			rowData = takeRowData(context);
+			path = platform.getFilesDir() + "/" + cleanFileName(header) + ".txt";
+			rowData = takeRowData(platform);
 			if (rowData != null){
 				position = rowData.getPosition();
 			} else {
-				createInternalStorageFile(context, path, text.toString());
+				createInternalStorageFile(platform, path, text.toString());
 			}
 		}
 		processed = true;
@@ -0,0 +1,145 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.database.DataBundle;
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.platform.Platform;
+
+import java.io.Serializable;
+
+/**
+ * Created by infm on 6/12/14. Enjoy ;)
+ */
+abstract public class Readable implements Serializable {
+
+	public static final int TYPE_RAW = 0;
+	public static final int TYPE_CLIPBOARD = 1;
+	public static final int TYPE_FILE = 2;
+	public static final int TYPE_TXT = 3;
+	public static final int TYPE_EPUB = 4;
+	public static final int TYPE_NET = 5;
+	public static final int TYPE_FB2 = 6;
+
+	protected StringBuilder text;
+	protected String header;
+	protected long seconds;
+	protected String path;
+	protected int position;
+	protected int type;
+	protected DataBundle rowData;
+	protected boolean processFailed;
+	protected boolean processed;
+	protected TokenBuffer tokens;
+
+	public Readable(){
+		text = new StringBuilder();
+		tokens = new TokenBuffer();
+		rowData = new DataBundle();
+	}
+
+	public Readable(Readable that){
+		text = that.getTextBuilder();
+		header = that.getHeader();
+		seconds = that.getSeconds();
+		path = that.getPath();
+		position = that.getPosition();
+		type = that.getType();
+		rowData = that.getRowData();
+		processFailed = that.isProcessFailed();
+		processed = that.isProcessed();
+		tokens = new TokenBuffer(); //tokens of the next chunk are built by TextParser
+	}
+
+	abstract public void process(Platform platform);
+
+	abstract public void readData();
+
+	abstract public Readable getNext();
+
+	public int calcProgress(int pos, long apc){
+		return (int) (100f / tokens.size() * (pos + 1) + .5f);
+	}
+
+	public Integer getType(){
+		return type;
+	}
+
+	public void setType(Integer type){
+		this.type = type;
+	}
+
+	public Long getSeconds(){
+		return seconds;
+	}
+
+	public Boolean isProcessFailed(){
+		return processFailed;
+	}
+
+	public String getText(){
+		return text.toString();
+	}
+
+	public void setText(String text){
+		this.text = new StringBuilder(text);
+	}
+
+	public StringBuilder getTextBuilder(){
+		return text;
+	}
+
+	public String getHeader(){
+		return header;
+	}
+
+	public void setHeader(String header){
+		this.header = header;
+	}
+
+	public String getPath(){
+		return path;
+	}
+
+	public void setPath(String path){
+		this.path = path;
+	}
+
+	public Integer getPosition(){
+		return position;
+	}
+
+	public void setPosition(Integer position){
+		this.position = position;
+	}
+
+	/**
+	 * @return true if tokens are already built, e.g. taken from a cache
+	 */
+	public boolean isParsed(){
+		return false;
+	}
+
+	/**
+	 * Called by TextParser when tokens are built
+	 */
+	public void onParsed(){}
+
+	public TokenBuffer getTokens(){
+		return tokens;
+	}
+
+	public void setTokens(TokenBuffer tokens){
+		this.tokens = tokens;
+	}
+
+	public boolean isProcessed(){
+		return processed;
+	}
+
+	public DataBundle getRowData(){
+		return rowData;
+	}
+
+	public void insertLastWord(String lastWord){
+		text = new StringBuilder(lastWord).append(text);
+	}
+}
@@ -0,0 +1,104 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.database.DataBundle;
+import com.infmme.readilyapp.platform.Platform;
+import com.infmme.readilyapp.util.StringUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Created by infm on 6/30/14. Enjoy ;)
+ */
+abstract public class Storable extends Readable {
+
+	protected String title;
+	protected long bytePosition;
+	protected long approxCharCount;
+
+	public Storable(){}
+
+	public Storable(Storable that){
+		super(that);
+		title = that.getTitle();
+		bytePosition = that.getBytePosition();
+		approxCharCount = that.getApproxCharCount();
+	}
+
+	public static void createInternalStorageFile(Platform platform, String path, String text){
+		if (platform.isCacheEnabled()){
+			File storageFile = new File(path);
+			try {
+				//TODO: implement check if path pointing to internal storage
+				if (storageFile.createNewFile()){
+					FileOutputStream fos = new FileOutputStream(storageFile);
+					fos.write(text.getBytes());
+					fos.close();
+				}
+			} catch (FileNotFoundException e) {
+				e.printStackTrace();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	public String getTitle(){ return title; }
+
+	public long getBytePosition(){ return bytePosition; }
+
+	public void setBytePosition(long bytePosition){ this.bytePosition = bytePosition; }
+
+	public long getApproxCharCount(){
+		return approxCharCount;
+	}
+
+	public void setApproxCharCount(long approxCharCount){
+		this.approxCharCount = approxCharCount;
+	}
+
+	protected DataBundle takeRowData(Platform platform){
+		return platform.getPositionStore().find(path);
+	}
+
+	/**
+	 * @return data to be stored by PositionStore
+	 */
+	public DataBundle createInsertionData(){
+		makeHeader();
+		return new DataBundle(header, path, 0, approxCharCount,
+							  (100 - calcProgress(position, approxCharCount)) + "%");
+	}
+
+	public void onClose(Platform platform, boolean isCompleted, boolean storeComplete){
+		if (storeComplete)
+			save(platform);
+		else
+			if (isCompleted)
+				delete(platform);
+			else
+				save(platform);
+		createInternalStorageFile(platform, path, text.toString());
+	}
+
+	public void save(Platform platform){
+		platform.getPositionStore().save(createInsertionData());
+	}
+
+	public void delete(Platform platform){
+		platform.getPositionStore().delete(path);
+	}
+
+	protected void makeHeader(){
+		if (StringUtils.isEmpty(header))
+			header = text.toString().substring(0, Math.min(text.length(), 40));
+	}
+
+	protected String cleanFileName(String s){
+		return ((StringUtils.isEmpty(s))
+				? System.currentTimeMillis() + "t"
+				: s.replace(' ', '_')).replace('/', '|');
+	}
+}
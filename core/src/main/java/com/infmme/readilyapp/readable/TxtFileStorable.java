@@ -1,6 +1,7 @@
 package com.infmme.readilyapp.readable;
 
-import android.content.Context;
+import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.platform.Platform;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -11,7 +12,7 @@ import java.io.IOException;
  */
 public class TxtFileStorable extends FileStorable {
 
-	private byte[] inputData = new byte[BUFFER_SIZE];
+	private ChunkDecoder chunkDecoder;
 
 	public TxtFileStorable(String path){
 		type = TYPE_TXT;
@@ -21,11 +22,12 @@ public class TxtFileStorable extends FileStorable {
 	public TxtFileStorable(TxtFileStorable that){
 		super(that);
 		type = TYPE_TXT;
+		chunkDecoder = that.chunkDecoder;
 	}
 
-	public void process(Context context){
+	public void process(Platform platform){
 		try {
-			path = FileStorable.takePath(context, path);
+			path = platform.resolvePath(path);
 			if (path == null){
 				return;
 			}
@@ -36,9 +38,13 @@ public class TxtFileStorable extends FileStorable {
 			encodingHelper.close();
 
 			fileInputStream = new FileInputStream(file);
-			createRowData(context);
+			createRowData(platform);
+			openChunkCache(platform, file);
+			chunkDecoder = ChunkDecoder.open(fileInputStream.getChannel(),
+											 ChunkDecoder.forName(encoding, Constants.DEFAULT_ENCODING),
+											 BUFFER_SIZE);
 			if (bytePosition > 0)
-				fileInputStream.skip(bytePosition);
+				chunkDecoder.seek(bytePosition);
 			processed = true;
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -46,14 +52,15 @@ public class TxtFileStorable extends FileStorable {
 	}
 
 	@Override
-	public void readData(){
+	protected void readChunk(){
 		try {
-			if (fileInputStream != null && (inputDataLength = fileInputStream.read(inputData)) != -1){
-				String toSet = new String(inputData, encoding);
-				if (inputDataLength < toSet.length())
-					toSet = toSet.substring(0, (int) inputDataLength);
-				setText(new StringBuilder(toSet));
+			//builder becomes text of this chunk and is shared with the next one by the copy constructor,
+			//so it can't be reused by the decoder
+			StringBuilder nextText = new StringBuilder(BUFFER_SIZE);
+			if (chunkDecoder != null && (inputDataLength = chunkDecoder.read(nextText)) != -1){
+				setText(nextText);
 			} else {
+				inputDataLength = 0;
 				setText("");
 			}
 		} catch (IOException e) {
@@ -61,6 +68,12 @@ public class TxtFileStorable extends FileStorable {
 		}
 	}
 
+	@Override
+	protected void seek(long bytePosition) throws IOException{
+		if (chunkDecoder != null)
+			chunkDecoder.seek(bytePosition);
+	}
+
 	public void setText(StringBuilder nextText){
 		text = nextText;
 	}
@@ -0,0 +1,170 @@
+package com.infmme.readilyapp.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread.
+ * Consumer never blocks: poll() and peek() return null if nothing is ready.
+ * Producer waits for free space in awaitSpace(), it's woken up by every poll() and by close(),
+ * the wake-up can't be lost, because a permit of LockSupport.unpark() is kept until park().
+ * Limit lower than capacity may be set at any time, e.g. to adapt count of prefetched items.
+ */
+public class ChunkQueue<T> {
+
+	private final Object[] items;
+	private final int mask;
+	/**
+	 * Index of the next item to poll, written by consumer only
+	 */
+	private final AtomicLong head = new AtomicLong();
+	/**
+	 * Index of the next item to offer, written by producer only
+	 */
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Producer waiting for free space, null if it doesn't wait
+	 */
+	private volatile Thread waitingProducer;
+	private volatile int limit;
+	private volatile boolean closed = false;
+
+	/**
+	 * @param capacity : max count of items, power of two
+	 */
+	public ChunkQueue(int capacity){
+		if (capacity <= 0 || (capacity & (capacity - 1)) != 0)
+			throw new IllegalArgumentException("capacity should be a power of two: " + capacity);
+		items = new Object[capacity];
+		mask = capacity - 1;
+		limit = capacity;
+	}
+
+	public int getCapacity(){
+		return items.length;
+	}
+
+	public int getLimit(){
+		return limit;
+	}
+
+	/**
+	 * Can be called by any thread, producer waiting for space is woken up
+	 *
+	 * @param limit : max count of items, it's clamped to [1, capacity]
+	 */
+	public void setLimit(int limit){
+		this.limit = Math.max(1, Math.min(limit, items.length));
+		Thread producer = waitingProducer;
+		if (producer != null)
+			LockSupport.unpark(producer);
+	}
+
+	/**
+	 * Called by producer
+	 *
+	 * @return false if queue is full or closed
+	 */
+	public boolean offer(T item){
+		if (item == null)
+			throw new NullPointerException();
+		long currentTail = tail.get();
+		if (closed || currentTail - head.get() >= limit)
+			return false;
+		items[(int) currentTail & mask] = item;
+		tail.lazySet(currentTail + 1);
+		return true;
+	}
+
+	/**
+	 * Called by consumer
+	 *
+	 * @return head item, null if queue is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public T peek(){
+		long currentHead = head.get();
+		if (currentHead == tail.get())
+			return null;
+		return (T) items[(int) currentHead & mask];
+	}
+
+	/**
+	 * Called by consumer, wakes up producer waiting for space
+	 *
+	 * @return removed head item, null if queue is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public T poll(){
+		long currentHead = head.get();
+		if (currentHead == tail.get())
+			return null;
+		int index = (int) currentHead & mask;
+		T item = (T) items[index];
+		items[index] = null;
+		//volatile write before reading waitingProducer, paired with awaitSpace()
+		head.set(currentHead + 1);
+		Thread producer = waitingProducer;
+		if (producer != null)
+			LockSupport.unpark(producer);
+		return item;
+	}
+
+	public int size(){
+		return (int) (tail.get() - head.get());
+	}
+
+	public boolean isEmpty(){
+		return size() == 0;
+	}
+
+	/**
+	 * Called by producer, returns as soon as an item can be offered or queue is closed
+	 *
+	 * @throws InterruptedException if producer thread is interrupted
+	 */
+	public void awaitSpace() throws InterruptedException{
+		if (closed || tail.get() - head.get() < limit)
+			return;
+		waitingProducer = Thread.currentThread();
+		try {
+			while (!closed && tail.get() - head.get() >= limit){
+				LockSupport.park(this);
+				if (Thread.interrupted())
+					throw new InterruptedException();
+			}
+		} finally {
+			waitingProducer = null;
+		}
+	}
+
+	/**
+	 * Called by producer, waits for free space until the item is offered.
+	 * Limit may be lowered below the count of items meanwhile, then it waits longer.
+	 *
+	 * @return false if queue is closed
+	 * @throws InterruptedException if producer thread is interrupted
+	 */
+	public boolean put(T item) throws InterruptedException{
+		while (!offer(item)){
+			if (closed)
+				return false;
+			awaitSpace();
+		}
+		return true;
+	}
+
+	/**
+	 * Producer stops: nothing can be offered anymore, waiting producer is woken up
+	 */
+	public void close(){
+		closed = true;
+		Thread producer = waitingProducer;
+		if (producer != null)
+			LockSupport.unpark(producer);
+	}
+
+	public boolean isClosed(){
+		return closed;
+	}
+}
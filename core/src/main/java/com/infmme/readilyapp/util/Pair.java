@@ -0,0 +1,40 @@
+package com.infmme.readilyapp.util;
+
+/**
+ * Plain java replacement of android.util.Pair, so core classes don't depend on Android
+ */
+public class Pair<F, S> {
+
+	public final F first;
+	public final S second;
+
+	public Pair(F first, S second){
+		this.first = first;
+		this.second = second;
+	}
+
+	public static <A, B> Pair<A, B> create(A a, B b){
+		return new Pair<A, B>(a, b);
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if (!(o instanceof Pair)){ return false; }
+		Pair<?, ?> p = (Pair<?, ?>) o;
+		return equal(p.first, first) && equal(p.second, second);
+	}
+
+	@Override
+	public int hashCode(){
+		return (first == null ? 0 : first.hashCode()) ^ (second == null ? 0 : second.hashCode());
+	}
+
+	@Override
+	public String toString(){
+		return "Pair{" + first + " " + second + "}";
+	}
+
+	private static boolean equal(Object a, Object b){
+		return a == b || (a != null && a.equals(b));
+	}
+}
@@ -0,0 +1,11 @@
+package com.infmme.readilyapp.util;
+
+/**
+ * Plain java replacement of android.text.TextUtils methods used by core classes
+ */
+public class StringUtils {
+
+	public static boolean isEmpty(CharSequence str){
+		return str == null || str.length() == 0;
+	}
+}
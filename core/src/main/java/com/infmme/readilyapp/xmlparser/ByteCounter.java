@@ -0,0 +1,170 @@
+package com.infmme.readilyapp.xmlparser;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Maps offsets of decoded chars to byte offsets in a file.
+ * Chars are counted by their encoded width, and the count is synced with the decoder
+ * at the end of every decoded block, so BOMs or malformed bytes don't shift it further.
+ */
+class ByteCounter {
+
+	private static final int WIDTH_UTF_8 = -1;
+	private static final int WIDTH_ENCODER = -2;
+	private static final int INITIAL_BOUNDARY_COUNT = 8;
+
+	/**
+	 * Width of every char in bytes, or one of WIDTH_ constants
+	 */
+	private final int width;
+	private CharsetEncoder encoder;
+	private CharBuffer encoderInput;
+	private ByteBuffer encoderOutput;
+
+	private long countedChar = 0;
+	private long countedByte;
+
+	/**
+	 * Ends of decoded blocks: char offsets and exact byte offsets, which are not counted yet
+	 */
+	private long[] boundaryChars = new long[INITIAL_BOUNDARY_COUNT];
+	private long[] boundaryBytes = new long[INITIAL_BOUNDARY_COUNT];
+	private int head = 0;
+	private int tail = 0;
+	private long decodedBytes;
+
+	/**
+	 * @param charset      : charset of a file
+	 * @param bytePosition : byte offset of the first char
+	 */
+	ByteCounter(Charset charset, long bytePosition){
+		countedByte = decodedBytes = bytePosition;
+		String name = charset.name();
+		if (name.equals("UTF-8")){
+			width = WIDTH_UTF_8;
+		} else if (name.startsWith("UTF-16")){
+			width = 2;
+		} else if (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1){
+			width = 1;
+		} else if (charset.canEncode()){
+			width = WIDTH_ENCODER;
+			encoder = charset.newEncoder()
+							 .onMalformedInput(CodingErrorAction.REPLACE)
+							 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+			encoderInput = CharBuffer.allocate(2);
+			encoderOutput = ByteBuffer.allocate((int) Math.ceil(2 * encoder.maxBytesPerChar()));
+		} else {
+			width = 1;
+		}
+	}
+
+	/**
+	 * Called after every decoded block
+	 *
+	 * @param charOffset : offset of the char after the block
+	 * @param byteCount  : count of bytes the block was decoded from
+	 */
+	void addBoundary(long charOffset, int byteCount){
+		if (byteCount == 0)
+			return;
+		decodedBytes += byteCount;
+		if (tail == boundaryChars.length){
+			int count = tail - head;
+			if (count * 2 > boundaryChars.length){
+				long[] grownChars = new long[boundaryChars.length * 2];
+				long[] grownBytes = new long[boundaryBytes.length * 2];
+				System.arraycopy(boundaryChars, head, grownChars, 0, count);
+				System.arraycopy(boundaryBytes, head, grownBytes, 0, count);
+				boundaryChars = grownChars;
+				boundaryBytes = grownBytes;
+			} else {
+				System.arraycopy(boundaryChars, head, boundaryChars, 0, count);
+				System.arraycopy(boundaryBytes, head, boundaryBytes, 0, count);
+			}
+			head = 0;
+			tail = count;
+		}
+		boundaryChars[tail] = charOffset;
+		boundaryBytes[tail++] = decodedBytes;
+	}
+
+	/**
+	 * @return exact byte offset of the end of the last decoded block
+	 */
+	long getDecodedBytes(){
+		return decodedBytes;
+	}
+
+	/**
+	 * Called when bytes are skipped without decoding
+	 *
+	 * @param charOffset : offset of the next decoded char
+	 * @param byteOffset : byte offset of the next decoded char
+	 */
+	void jump(long charOffset, long byteOffset){
+		countedChar = charOffset;
+		countedByte = decodedBytes = byteOffset;
+		head = tail = 0;
+	}
+
+	/**
+	 * Offsets have to be asked in ascending order, chars up to charOffset have to be in the buffer
+	 *
+	 * @param charOffset   : offset of a char
+	 * @param buffer       : parser's buffer
+	 * @param bufferOffset : offset of the first char in the buffer
+	 * @return byte offset of a char
+	 */
+	long byteOffsetOf(long charOffset, char[] buffer, long bufferOffset){
+		sync();
+		while (countedChar < charOffset){
+			countedByte += widthOf(buffer, (int) (countedChar - bufferOffset));
+			countedChar++;
+			sync();
+		}
+		return countedByte;
+	}
+
+	private void sync(){
+		while (head < tail && boundaryChars[head] <= countedChar){
+			if (boundaryChars[head] == countedChar)
+				countedByte = boundaryBytes[head];
+			head++;
+		}
+	}
+
+	private int widthOf(char[] buffer, int index){
+		char ch = buffer[index];
+		switch (width){
+			case WIDTH_UTF_8:
+				if (ch < 0x80)
+					return 1;
+				if (ch < 0x800)
+					return 2;
+				if (Character.isHighSurrogate(ch))
+					return 4;
+				if (Character.isLowSurrogate(ch))
+					return 0;
+				return 3;
+			case WIDTH_ENCODER:
+				if (Character.isHighSurrogate(ch))
+					return 0;
+				encoderInput.clear();
+				if (Character.isLowSurrogate(ch) && index > 0 && Character.isHighSurrogate(buffer[index - 1]))
+					encoderInput.put(buffer[index - 1]);
+				encoderInput.put(ch);
+				encoderInput.flip();
+				encoderOutput.clear();
+				encoder.reset();
+				encoder.encode(encoderInput, encoderOutput, true);
+				encoder.flush(encoderOutput);
+				return encoderOutput.position();
+			default:
+				return width;
+		}
+	}
+}
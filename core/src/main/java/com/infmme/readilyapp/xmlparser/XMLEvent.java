@@ -1,6 +1,6 @@
 package com.infmme.readilyapp.xmlparser;
 
-import android.util.Pair;
+import com.infmme.readilyapp.util.Pair;
 
 /**
  * created on 8/26/14 by infm. Enjoy ;)
@@ -14,7 +14,12 @@ public class XMLEvent {
 	private String contentType;
 	private String tagName;
 
-	private boolean tagNameReady;
+	/**
+	 * Content is a slice of parser's buffer until getContent() is called
+	 */
+	private char[] contentBuffer;
+	private int contentOffset;
+	private int contentLength;
 
 	public XMLEvent(int type){
 		content = "";
@@ -33,7 +38,7 @@ public class XMLEvent {
 	}
 
 	public void setStartPosition(long startPosition){
-		domain = new Pair<Long, Long>(startPosition, domain.first);
+		domain = new Pair<Long, Long>(startPosition, domain.second);
 	}
 
 	public int getType(){
@@ -41,9 +46,34 @@ public class XMLEvent {
 	}
 
 	public String getContent(){
+		if (contentBuffer != null){
+			content = new String(contentBuffer, contentOffset, contentLength);
+			contentBuffer = null;
+		}
 		return content;
 	}
 
+	/**
+	 * Appends content without creating a String
+	 *
+	 * @param sb : StringBuilder to append to
+	 * @return sb
+	 */
+	public StringBuilder appendContentTo(StringBuilder sb){
+		if (contentBuffer != null)
+			return sb.append(contentBuffer, contentOffset, contentLength);
+		return sb.append(content);
+	}
+
+	/**
+	 * @param buffer : parser's buffer, it's valid only until the next event is parsed
+	 */
+	public void setContent(char[] buffer, int offset, int length){
+		contentBuffer = buffer;
+		contentOffset = offset;
+		contentLength = length;
+	}
+
 	public String getTagName(){
 		return tagName;
 	}
@@ -63,19 +93,8 @@ public class XMLEvent {
 		}
 	}
 
-	public void appendContent(char c){
-		content += c;
-	}
-
-	public void appendTagName(char c){
-		if (!tagNameReady)
-			tagNameReady = Character.isWhitespace(c);
-		if (!tagNameReady)
-			tagName += c;
-	}
-
-	public void cutLastTagChar(){
-		tagName = tagName.substring(0, tagName.length() - 1);
+	public void setTagName(String tagName){
+		this.tagName = tagName;
 	}
 
 	@Override
@@ -83,7 +102,7 @@ public class XMLEvent {
 		return "domain: from " + domain.first + " to " + domain.second +
 				"; type: " + XMLParser.getTypeName(type) +
 				"; close type: " + XMLParser.getTypeName(closeType) +
-				"; content: " + content +
+				"; content: " + getContent() +
 				"; tag name: " + tagName;
 	}
 
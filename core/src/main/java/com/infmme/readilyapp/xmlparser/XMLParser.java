@@ -0,0 +1,542 @@
+package com.infmme.readilyapp.xmlparser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * created on 8/26/14 by infm. Enjoy ;)
+ * <p/>
+ * Pull parser over a reusable char buffer: input is decoded in blocks,
+ * content of events points into the buffer and becomes a String only on demand.
+ * Positions of events are byte offsets in a file, so parsing can be resumed from any of them.
+ */
+public class XMLParser {
+	/* Event types */
+	public static final int DOCUMENT_START = 0;
+	public static final int DOCUMENT_CLOSE = 1;
+	public static final int TAG = 665;
+	public static final int TAG_START = 666;
+	public static final int TAG_CLOSE = 667;
+	public static final int TAG_SINGLE = 668;
+	public static final int EMPTINESS = 31415;
+	public static final int CONTENT = 228;
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int NAME_CACHE_SIZE = 64;
+
+	private FileChannel channel;
+	private CharsetDecoder decoder;
+	private ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+	private XMLEvent currentEvent;
+	private Stack<XMLEvent> tagStack = new Stack<XMLEvent>();
+
+	private char[] buffer = new char[BUFFER_SIZE];
+	private CharBuffer chars = CharBuffer.wrap(buffer);
+	private int pos = 0;
+	private int limit = 0;
+	/**
+	 * Beginning of the event being parsed, chars before it may be dropped from the buffer
+	 */
+	private int mark = 0;
+	/**
+	 * Count of chars dropped from the beginning of the buffer
+	 */
+	private long bufferOffset = 0;
+	private boolean endOfBytes = false;
+	private boolean endOfInput = false;
+	private ByteCounter byteCounter = new ByteCounter(Charset.forName("UTF-8"), 0);
+
+	private String[] nameCache = new String[NAME_CACHE_SIZE];
+
+	/**
+	 * Content of these tags is skipped as raw bytes, without decoding
+	 */
+	private String[] ignoredTags = new String[0];
+	private byte[][] ignoredTagPatterns = new byte[0][];
+	private String pendingIgnoredTag;
+	private Charset charset = Charset.forName("UTF-8");
+	/**
+	 * Width of a code unit in bytes, skipping stops only at offsets which are multiple of it
+	 */
+	private int byteUnit = 1;
+
+	public static String getTypeName(int type){
+		switch (type){
+			case DOCUMENT_START:
+				return "DOCUMENT_START";
+			case DOCUMENT_CLOSE:
+				return "DOCUMENT_CLOSE";
+			case TAG:
+				return "TAG";
+			case TAG_START:
+				return "TAG_START";
+			case TAG_CLOSE:
+				return "TAG_CLOSE";
+			case TAG_SINGLE:
+				return "TAG_SINGLE";
+			case EMPTINESS:
+				return "EMPTINESS";
+			case CONTENT:
+				return "CONTENT";
+			default:
+				return "Illegal argument";
+		}
+	}
+
+	/**
+	 * Parsing starts from the current position of fis
+	 */
+	public void setInput(FileInputStream fis, String encoding){
+		try {
+			setInput(fis, encoding, fis.getChannel().position(), Collections.<String>emptyList());
+		} catch (IOException e){
+			e.printStackTrace();
+		}
+	}
+
+	public void setInput(FileInputStream fis){
+		setInput(fis, "UTF-8");
+	}
+
+	/**
+	 * Resumes parsing from a boundary of events.
+	 * Byte order mark is skipped, byte order of UTF-16 is taken from it, so it's right at any position.
+	 *
+	 * @param fis          : file to parse
+	 * @param encoding     : encoding of a file
+	 * @param bytePosition : byte offset of a boundary, e.g. taken from getBytePosition()
+	 * @param tagPath      : names of tags enclosing the boundary, e.g. taken from getTagPath()
+	 * @throws IOException
+	 */
+	public void setInput(FileInputStream fis, String encoding, long bytePosition, List<String> tagPath)
+			throws IOException{
+		Charset charset;
+		try {
+			charset = Charset.forName(encoding);
+		} catch (IllegalArgumentException e){
+			e.printStackTrace();
+			charset = Charset.forName("UTF-8");
+		}
+		channel = fis.getChannel();
+		ByteBuffer head = ByteBuffer.allocate(3);
+		channel.read(head, 0);
+		head.flip();
+		int byteOrderMarkLength = 0;
+		if (charset.name().equals("UTF-8") && startsWith(head, 0xEF, 0xBB, 0xBF)){
+			byteOrderMarkLength = 3;
+		} else if (charset.name().equals("UTF-16")){
+			if (startsWith(head, 0xFF, 0xFE)){
+				charset = Charset.forName("UTF-16LE");
+				byteOrderMarkLength = 2;
+			} else {
+				charset = Charset.forName("UTF-16BE");
+				if (startsWith(head, 0xFE, 0xFF))
+					byteOrderMarkLength = 2;
+			}
+		}
+		bytePosition = Math.max(bytePosition, byteOrderMarkLength);
+		this.charset = charset;
+		byteUnit = charset.name().startsWith("UTF-16") ? 2 : 1;
+		ignoredTagPatterns = new byte[ignoredTags.length][];
+		pendingIgnoredTag = null;
+		decoder = charset.newDecoder()
+						 .onMalformedInput(CodingErrorAction.REPLACE)
+						 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+		channel.position(bytePosition);
+		bytes.clear();
+		bytes.flip();
+		pos = limit = mark = 0;
+		bufferOffset = 0;
+		endOfBytes = endOfInput = false;
+		byteCounter = new ByteCounter(charset, bytePosition);
+		tagStack.clear();
+		for (String tagName : tagPath){
+			XMLEvent tag = new XMLEvent(TAG_START);
+			tag.setTagName(tagName);
+			tagStack.push(tag);
+		}
+	}
+
+	/**
+	 * Content of given tags is skipped: only their TAG_START and TAG_CLOSE events are reported.
+	 * E.g. FB2 keeps images as megabytes of base64 in binary tags.
+	 *
+	 * @param tagNames : names of tags to ignore
+	 */
+	public void setIgnoredTags(String... tagNames){
+		ignoredTags = tagNames.clone();
+		ignoredTagPatterns = new byte[ignoredTags.length][];
+	}
+
+	/**
+	 * @return offset of the next char to parse, in chars from the starting point
+	 */
+	public long getPosition() {
+		return bufferOffset + pos;
+	}
+
+	/**
+	 * @return byte offset of the next char to parse in a file
+	 */
+	public long getBytePosition(){
+		return byteCounter.byteOffsetOf(getPosition(), buffer, bufferOffset);
+	}
+
+	/**
+	 * @return names of currently open tags, from the outermost one
+	 */
+	public List<String> getTagPath(){
+		List<String> tagPath = new ArrayList<String>(tagStack.size());
+		for (XMLEvent tag : tagStack)
+			tagPath.add(tag.getTagName());
+		return tagPath;
+	}
+
+	/**
+	 * Content of returned event is valid only until the next call
+	 *
+	 * @return next event, DOCUMENT_CLOSE at the end of input
+	 * @throws IOException
+	 */
+	public XMLEvent next() throws IOException{
+		currentEvent = null;
+		while (currentEvent == null)
+			processEvent();
+		return currentEvent;
+	}
+
+	private void processEvent() throws IOException{
+		if (pendingIgnoredTag != null){
+			skipContent(pendingIgnoredTag);
+			pendingIgnoredTag = null;
+		}
+		while (available(1) && Character.isWhitespace(buffer[pos]))
+			pos++;
+		mark = pos;
+		long startPosition = getBytePosition();
+		if (!available(1)){
+			currentEvent = new XMLEvent(DOCUMENT_CLOSE);
+			if (!tagStack.empty() && tagStack.lastElement().getType() == DOCUMENT_START)
+				tagStack.pop();
+		} else if (buffer[pos] != '<'){
+			readContent();
+		} else if (!available(2)){
+			pos++;
+			return;
+		} else {
+			switch (buffer[pos + 1]){
+				case '/':
+					readCloseTag();
+					break;
+				case '?':
+					readDocumentStart();
+					break;
+				case '!':
+					readDeclaration();
+					break;
+				default:
+					readTag();
+			}
+		}
+		if (currentEvent != null){
+			currentEvent.setStartPosition(startPosition);
+			currentEvent.setEndPosition(getBytePosition());
+		}
+	}
+
+	private void readContent() throws IOException{
+		while (available(1) && buffer[pos] != '<')
+			pos++;
+		currentEvent = new XMLEvent(CONTENT);
+		currentEvent.setContent(buffer, mark, pos - mark);
+		if (!tagStack.isEmpty())
+			currentEvent.setContentType(tagStack.lastElement().getTagName());
+	}
+
+	private void readTag() throws IOException{
+		pos++;
+		String tagName = readName();
+		int type = TAG_START;
+		char previous = 0;
+		char quote = 0;
+		while (available(1)){
+			char ch = buffer[pos++];
+			if (quote != 0){
+				if (ch == quote) quote = 0;
+			} else if (ch == '"' || ch == '\''){
+				quote = ch;
+			} else if (ch == '>'){
+				if (previous == '/')
+					type = TAG_SINGLE;
+				break;
+			}
+			previous = ch;
+		}
+		currentEvent = new XMLEvent(TAG);
+		currentEvent.clarifyTagType(type);
+		currentEvent.setTagName(tagName);
+		if (type == TAG_START){
+			tagStack.push(currentEvent);
+			if (isIgnored(tagName))
+				pendingIgnoredTag = tagName;
+		}
+	}
+
+	private boolean isIgnored(String tagName){
+		for (String ignoredTag : ignoredTags)
+			if (ignoredTag.equals(tagName))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Moves to the closing tag. Decoded chars are searched first,
+	 * then the rest of input is searched for encoded closing tag as raw bytes.
+	 */
+	private void skipContent(String tagName) throws IOException{
+		String closing = "</" + tagName;
+		while (true){
+			int found = indexOf(closing, pos);
+			if (found >= 0){
+				pos = found;
+				return;
+			}
+			if (endOfInput){
+				pos = limit;
+				return;
+			}
+			//closing tag may be split by the end of decoded chars
+			int tail = Math.max(pos, limit - closing.length() + 1);
+			if (indexOf("<", tail) < 0)
+				break;
+			pos = tail;
+			mark = pos;
+			fill();
+		}
+		pos = mark = limit;
+		long byteOffset = skipBytes(getIgnoredTagPattern(tagName));
+		decoder.reset();
+		byteCounter.jump(bufferOffset + limit, byteOffset);
+	}
+
+	/**
+	 * @return byte offset of the pattern or of the end of input
+	 */
+	private long skipBytes(byte[] pattern) throws IOException{
+		long byteOffset = byteCounter.getDecodedBytes();
+		while (true){
+			byte[] array = bytes.array();
+			int start = bytes.arrayOffset() + bytes.position();
+			int end = bytes.arrayOffset() + bytes.limit();
+			for (int i = start; i <= end - pattern.length; i += byteUnit){
+				if (array[i] != pattern[0]) continue;
+				int j = 1;
+				while (j < pattern.length && array[i + j] == pattern[j])
+					j++;
+				if (j == pattern.length){
+					bytes.position(i - bytes.arrayOffset());
+					return byteOffset + i - start;
+				}
+			}
+			if (endOfBytes){
+				bytes.position(bytes.limit());
+				return byteOffset + end - start;
+			}
+			//pattern may be split by the end of bytes, its beginning is kept
+			int dropped = Math.max(0, end - start - pattern.length + 1);
+			dropped -= dropped % byteUnit;
+			byteOffset += dropped;
+			bytes.position(bytes.position() + dropped);
+			bytes.compact();
+			endOfBytes = channel.read(bytes) == -1;
+			bytes.flip();
+		}
+	}
+
+	private byte[] getIgnoredTagPattern(String tagName){
+		for (int i = 0; i < ignoredTags.length; ++i){
+			if (ignoredTags[i].equals(tagName)){
+				if (ignoredTagPatterns[i] == null){
+					ByteBuffer encoded = charset.encode("</" + tagName);
+					ignoredTagPatterns[i] = new byte[encoded.remaining()];
+					encoded.get(ignoredTagPatterns[i]);
+				}
+				return ignoredTagPatterns[i];
+			}
+		}
+		throw new IllegalArgumentException("tag isn't ignored: " + tagName);
+	}
+
+	private int indexOf(String pattern, int from){
+		for (int i = from; i <= limit - pattern.length(); ++i){
+			int j = 0;
+			while (j < pattern.length() && buffer[i + j] == pattern.charAt(j))
+				j++;
+			if (j == pattern.length())
+				return i;
+		}
+		return -1;
+	}
+
+	private void readCloseTag() throws IOException{
+		pos += 2;
+		currentEvent = new XMLEvent(TAG_CLOSE);
+		currentEvent.setTagName(readName());
+		skipPast('>');
+		if (!tagStack.empty() && tagStack.lastElement().getTagName().equals(currentEvent.getTagName()))
+			tagStack.pop();
+	}
+
+	private void readDocumentStart() throws IOException{
+		pos += 2;
+		currentEvent = new XMLEvent(DOCUMENT_START);
+		currentEvent.setTagName(readName());
+		while (available(2) && !(buffer[pos] == '?' && buffer[pos + 1] == '>'))
+			pos++;
+		pos = Math.min(pos + 2, limit);
+		tagStack.push(currentEvent);
+	}
+
+	/**
+	 * Comments and DOCTYPE are skipped, CDATA is reported as content
+	 */
+	private void readDeclaration() throws IOException{
+		if (startsWith("<!--")){
+			pos += 4;
+			while (available(3) && !(buffer[pos] == '-' && buffer[pos + 1] == '-' && buffer[pos + 2] == '>'))
+				pos++;
+			pos = Math.min(pos + 3, limit);
+		} else if (startsWith("<![CDATA[")){
+			pos += 9;
+			int start = pos - mark;
+			while (available(3) && !(buffer[pos] == ']' && buffer[pos + 1] == ']' && buffer[pos + 2] == '>'))
+				pos++;
+			if (!available(3))
+				pos = limit;
+			currentEvent = new XMLEvent(CONTENT);
+			currentEvent.setContent(buffer, mark + start, pos - mark - start);
+			if (!tagStack.isEmpty())
+				currentEvent.setContentType(tagStack.lastElement().getTagName());
+			pos = Math.min(pos + 3, limit);
+		} else {
+			skipPast('>');
+		}
+	}
+
+	/**
+	 * Reads name of a tag, which ends with whitespace, '/', '?' or '>'
+	 */
+	private String readName() throws IOException{
+		int start = pos - mark;
+		while (available(1)){
+			char ch = buffer[pos];
+			if (Character.isWhitespace(ch) || ch == '>' || ch == '/' || ch == '?')
+				break;
+			pos++;
+		}
+		return internName(mark + start, pos - mark - start);
+	}
+
+	private void skipPast(char ch) throws IOException{
+		while (available(1) && buffer[pos] != ch)
+			pos++;
+		if (available(1))
+			pos++;
+	}
+
+	private boolean startsWith(String prefix) throws IOException{
+		if (!available(prefix.length()))
+			return false;
+		for (int i = 0; i < prefix.length(); ++i)
+			if (buffer[pos + i] != prefix.charAt(i))
+				return false;
+		return true;
+	}
+
+	private static boolean startsWith(ByteBuffer bytes, int... prefix){
+		if (bytes.remaining() < prefix.length)
+			return false;
+		for (int i = 0; i < prefix.length; ++i)
+			if ((bytes.get(i) & 0xFF) != prefix[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Tag names repeat all the time, so their Strings are cached
+	 */
+	private String internName(int offset, int length){
+		int hash = 0;
+		for (int i = offset; i < offset + length; ++i)
+			hash = 31 * hash + buffer[i];
+		int index = hash & (NAME_CACHE_SIZE - 1);
+		String cached = nameCache[index];
+		if (cached != null && cached.length() == length){
+			boolean equal = true;
+			for (int i = 0; i < length && equal; ++i)
+				equal = cached.charAt(i) == buffer[offset + i];
+			if (equal)
+				return cached;
+		}
+		return nameCache[index] = new String(buffer, offset, length);
+	}
+
+	/**
+	 * Makes sure that count chars starting from pos are in the buffer, if input has them
+	 */
+	private boolean available(int count) throws IOException{
+		while (limit - pos < count && !endOfInput)
+			fill();
+		return limit - pos >= count;
+	}
+
+	/**
+	 * Drops chars before mark and decodes next block, buffer grows if an event doesn't fit in it
+	 */
+	private void fill() throws IOException{
+		if (decoder == null){
+			endOfInput = true;
+			return;
+		}
+		if (mark > 0){
+			byteCounter.byteOffsetOf(bufferOffset + mark, buffer, bufferOffset);
+			System.arraycopy(buffer, mark, buffer, 0, limit - mark);
+			bufferOffset += mark;
+			pos -= mark;
+			limit -= mark;
+			mark = 0;
+		}
+		if (limit == buffer.length){
+			char[] grown = new char[buffer.length * 2];
+			System.arraycopy(buffer, 0, grown, 0, limit);
+			buffer = grown;
+			chars = CharBuffer.wrap(buffer);
+		}
+		if (!endOfBytes){
+			bytes.compact();
+			endOfBytes = channel.read(bytes) == -1;
+			bytes.flip();
+		}
+		chars.limit(buffer.length);
+		chars.position(limit);
+		int before = bytes.position();
+		CoderResult result = decoder.decode(bytes, chars, endOfBytes);
+		if (endOfBytes && !result.isOverflow()){
+			decoder.flush(chars);
+			endOfInput = true;
+		}
+		limit = chars.position();
+		byteCounter.addBoundary(bufferOffset + limit, bytes.position() - before);
+	}
+}
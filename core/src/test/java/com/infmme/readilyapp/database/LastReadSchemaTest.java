@@ -0,0 +1,183 @@
+package com.infmme.readilyapp.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Migrations run by sqlite-jdbc: rows of old versions are kept and the schema ends as a created one
+ */
+public class LastReadSchemaTest {
+
+	/**
+	 * Table as it was created by version 2, link column was dropped by version 4
+	 */
+	private static final String CREATE_2 =
+			"CREATE TABLE " + LastReadSchema.TABLE + " (_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+					"header TEXT NOT NULL, path TEXT NOT NULL, time_modified INTEGER, percent_left INTEGER, " +
+					"position INTEGER, link TEXT, byte_position INTEGER);";
+	/**
+	 * Table as it was created by version 4, before time_verified
+	 */
+	private static final String CREATE_4 =
+			"CREATE TABLE " + LastReadSchema.TABLE + " (_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+					"header TEXT NOT NULL, path TEXT NOT NULL, time_modified INTEGER NOT NULL DEFAULT 0, " +
+					"percent_left INTEGER, position INTEGER, byte_position INTEGER);";
+	private static final String INSERT_2 =
+			"INSERT INTO " + LastReadSchema.TABLE +
+					" (header, path, time_modified, percent_left, position, link, byte_position) VALUES ";
+
+	private Connection connection;
+
+	@Before
+	public void setUp() throws Exception{
+		Class.forName("org.sqlite.JDBC");
+		connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+	}
+
+	@After
+	public void tearDown() throws SQLException{
+		connection.close();
+	}
+
+	@Test
+	public void upgradeFrom2() throws SQLException{
+		execute(CREATE_2);
+		execute(INSERT_2 + "('first', '/books/a.txt', 100, '42%', 10, NULL, 2048)");
+		execute(INSERT_2 + "('second', '/books/b.fb2', NULL, '7%', 3, 'link', NULL)");
+		execute(INSERT_2 + "('first again', '/books/a.txt', 200, '50%', 20, NULL, 4096)");
+		execute(LastReadSchema.getUpgradeStatements(2, LastReadSchema.VERSION));
+
+		assertEquals(getCreatedColumns(), getColumns());
+		List<String> rows = select("SELECT _id, header, path, time_modified, typeof(percent_left), percent_left, " +
+										   "position, byte_position, time_verified FROM " + LastReadSchema.TABLE +
+										   " ORDER BY _id");
+		assertEquals(2, rows.size());
+		assertEquals("2|second|/books/b.fb2|0|integer|7|3|null|0", rows.get(0));
+		assertEquals("3|first again|/books/a.txt|200|integer|50|20|4096|0", rows.get(1));
+		assertIndexes();
+	}
+
+	@Test
+	public void upgradeFrom3() throws SQLException{
+		execute(CREATE_2);
+		execute(LastReadSchema.CREATE_INDEX_PATH);
+		execute(INSERT_2 + "('first', '/books/a.txt', 100, '42%', 10, NULL, 2048)");
+		execute(INSERT_2 + "('second', '/books/b.fb2', 300, '100%', 0, NULL, 0)");
+		execute(LastReadSchema.getUpgradeStatements(3, LastReadSchema.VERSION));
+
+		assertEquals(getCreatedColumns(), getColumns());
+		List<String> rows = select("SELECT _id, path, percent_left, position, byte_position FROM " +
+										   LastReadSchema.TABLE + " ORDER BY _id");
+		assertEquals(2, rows.size());
+		assertEquals("1|/books/a.txt|42|10|2048", rows.get(0));
+		assertEquals("2|/books/b.fb2|100|0|0", rows.get(1));
+		assertIndexes();
+	}
+
+	@Test
+	public void upgradeFrom4() throws SQLException{
+		execute(CREATE_4);
+		execute(LastReadSchema.CREATE_INDEX_PATH);
+		execute(LastReadSchema.CREATE_INDEX_TIME_MODIFIED);
+		execute("INSERT INTO " + LastReadSchema.TABLE + " (header, path, time_modified, percent_left, position, " +
+						"byte_position) VALUES ('first', '/books/a.txt', 100, 42, 10, 2048)");
+		execute(LastReadSchema.getUpgradeStatements(4, LastReadSchema.VERSION));
+
+		assertEquals(getCreatedColumns(), getColumns());
+		assertEquals("1|42|0", select("SELECT _id, percent_left, time_verified FROM " + LastReadSchema.TABLE).get(0));
+		assertIndexes();
+	}
+
+	@Test
+	public void pathIsUnique() throws SQLException{
+		execute(LastReadSchema.getCreateStatements());
+		execute("INSERT INTO " + LastReadSchema.TABLE + " (header, path) VALUES ('first', '/books/a.txt')");
+		try {
+			execute("INSERT INTO " + LastReadSchema.TABLE + " (header, path) VALUES ('second', '/books/a.txt')");
+			fail("second row of a path is inserted");
+		} catch (SQLException expected) {}
+	}
+
+	private void assertIndexes() throws SQLException{
+		List<String> indexes = select("SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = '" +
+											  LastReadSchema.TABLE + "'");
+		assertTrue(indexes.contains(LastReadSchema.INDEX_PATH));
+		assertTrue(indexes.contains(LastReadSchema.INDEX_TIME_MODIFIED));
+		assertTrue(indexes.contains(LastReadSchema.INDEX_TIME_VERIFIED));
+	}
+
+	/**
+	 * @return columns of the table created from scratch, in a separate database
+	 */
+	private static List<String> getCreatedColumns() throws SQLException{
+		LastReadSchemaTest created = new LastReadSchemaTest();
+		created.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+		try {
+			created.execute(LastReadSchema.getCreateStatements());
+			return created.getColumns();
+		} finally {
+			created.connection.close();
+		}
+	}
+
+	/**
+	 * @return name, type, not null flag and default value of every column
+	 */
+	private List<String> getColumns() throws SQLException{
+		List<String> result = new ArrayList<String>();
+		for (String column : select("PRAGMA table_info(" + LastReadSchema.TABLE + ")"))
+			result.add(column.substring(column.indexOf('|') + 1, column.lastIndexOf('|')));
+		return result;
+	}
+
+	private void execute(List<String> statements) throws SQLException{
+		for (String sql : statements)
+			execute(sql);
+	}
+
+	private void execute(String sql) throws SQLException{
+		Statement statement = connection.createStatement();
+		try {
+			statement.execute(sql);
+		} finally {
+			statement.close();
+		}
+	}
+
+	/**
+	 * @return rows with columns joined by '|'
+	 */
+	private List<String> select(String sql) throws SQLException{
+		List<String> result = new ArrayList<String>();
+		Statement statement = connection.createStatement();
+		try {
+			ResultSet resultSet = statement.executeQuery(sql);
+			int columnCount = resultSet.getMetaData().getColumnCount();
+			while (resultSet.next()){
+				StringBuilder row = new StringBuilder();
+				for (int i = 1; i <= columnCount; ++i){
+					if (i > 1)
+						row.append('|');
+					row.append(resultSet.getString(i));
+				}
+				result.add(row.toString());
+			}
+		} finally {
+			statement.close();
+		}
+		return result;
+	}
+}
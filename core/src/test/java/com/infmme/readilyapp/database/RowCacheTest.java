@@ -0,0 +1,98 @@
+package com.infmme.readilyapp.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class RowCacheTest {
+
+	@Test
+	public void cachedRowIsCopied(){
+		RowCache cache = new RowCache(RowCache.CAPACITY);
+		CountingLoader loader = new CountingLoader(row(1, "/a", 10));
+		DataBundle loaded = cache.get("/a", loader);
+		loaded.setPosition(20);
+		DataBundle cached = cache.get("/a", loader);
+		assertEquals(10, cached.getPosition());
+		assertNotSame(cached, cache.get("/a", loader));
+		assertEquals(1, loader.count);
+	}
+
+	@Test
+	public void loadRacingInvalidateIsNotCached(){
+		final RowCache cache = new RowCache(RowCache.CAPACITY);
+		CountingLoader loader = new CountingLoader(row(1, "/a", 10)) {
+			@Override
+			public DataBundle load(String path){
+				DataBundle row = super.load(path);
+				//the row is written and invalidated after it was read
+				cache.invalidate(path);
+				return row;
+			}
+		};
+		assertEquals(10, cache.get("/a", loader).getPosition());
+		assertEquals(0, cache.size());
+		cache.get("/a", loader);
+		assertEquals("stale row is loaded again", 2, loader.count);
+	}
+
+	@Test
+	public void absentRowIsInvalidatedOnInsert(){
+		RowCache cache = new RowCache(RowCache.CAPACITY);
+		CountingLoader loader = new CountingLoader(null);
+		assertNull(cache.get("/a", loader));
+		assertNull(cache.get("/a", loader));
+		assertEquals("absence is cached", 1, loader.count);
+
+		loader.row = row(1, "/a", 10);
+		cache.invalidate("/a"); //done by the provider after the insert
+		assertEquals(10, cache.get("/a", loader).getPosition());
+		assertEquals(2, loader.count);
+	}
+
+	@Test
+	public void rowIsInvalidatedById(){
+		RowCache cache = new RowCache(RowCache.CAPACITY);
+		CountingLoader loader = new CountingLoader(row(7, "/a", 10));
+		cache.get("/a", loader);
+		cache.invalidate(7);
+		assertEquals(0, cache.size());
+		cache.get("/a", loader);
+		assertEquals(2, loader.count);
+	}
+
+	@Test
+	public void eldestRowIsEvicted(){
+		RowCache cache = new RowCache(2);
+		cache.get("/a", new CountingLoader(row(1, "/a", 0)));
+		cache.get("/b", new CountingLoader(row(2, "/b", 0)));
+		cache.get("/a", new CountingLoader(null));
+		cache.get("/c", new CountingLoader(null));
+		assertEquals(2, cache.size());
+		CountingLoader loader = new CountingLoader(row(2, "/b", 0));
+		cache.get("/b", loader);
+		assertEquals("least recently used row is evicted", 1, loader.count);
+	}
+
+	private static DataBundle row(int rowId, String path, int position){
+		return new DataBundle(rowId, "header", path, position, 0, "0%");
+	}
+
+	private static class CountingLoader implements RowCache.Loader {
+
+		private DataBundle row;
+		private int count;
+
+		public CountingLoader(DataBundle row){
+			this.row = row;
+		}
+
+		@Override
+		public DataBundle load(String path){
+			count++;
+			return (row == null) ? null : new DataBundle(row);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.infmme.readilyapp.essential;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Texts of resources/corpus, the same ones benchmarks are run on
+ */
+public class Corpora {
+
+	public static final String[] LANGUAGES = {"en", "ru", "uk"};
+	public static final int CHUNK_SIZE = 4096;
+
+	public static String load(String language) throws IOException{
+		InputStream is = Corpora.class.getResourceAsStream("/corpus/" + language + ".txt");
+		if (is == null)
+			throw new IOException("no such corpus: " + language);
+		try {
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			byte[] buffer = new byte[CHUNK_SIZE];
+			int read;
+			while ((read = is.read(buffer)) != -1)
+				result.write(buffer, 0, read);
+			return new String(result.toByteArray(), "UTF-8");
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * @return words of a normalized corpus
+	 */
+	public static TokenBuffer loadWords(String language) throws IOException{
+		return TokenBuffer.tokenize(TextNormalizer.normalize(load(language)));
+	}
+}
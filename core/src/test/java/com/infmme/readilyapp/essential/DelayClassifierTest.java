@@ -0,0 +1,69 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.Constants;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Delays looked up by DelayClassifier have to be the same as of the former measureWord() of TextParser
+ */
+public class DelayClassifierTest {
+
+	private static final String ALPHABET = "abcне not.,!?-—:;\t\n0123٣x\"()";
+
+	@Test
+	public void corpusWords() throws IOException{
+		int[] coefficients = new int[DelayClassifier.CLASS_COUNT];
+		for (int i = 0; i < coefficients.length; ++i)
+			coefficients[i] = Integer.parseInt(Constants.Preferences.STR_PUNCTUATION_DEFAULTS[i]);
+		DelayClassifier classifier = new DelayClassifier(coefficients);
+		List<Integer> legacyCoefficients = toList(coefficients);
+		for (String language : Corpora.LANGUAGES){
+			TokenBuffer tokens = Corpora.loadWords(language);
+			for (int i = 0; i < tokens.size(); ++i)
+				assertDelay(classifier, legacyCoefficients, tokens.getWord(i));
+		}
+	}
+
+	@Test
+	public void randomWordsAndCoefficients(){
+		Random random = new Random(3);
+		for (int k = 0; k < 20000; ++k){
+			int[] coefficients = new int[DelayClassifier.CLASS_COUNT];
+			for (int i = 0; i < coefficients.length; ++i)
+				coefficients[i] = random.nextInt(30);
+			DelayClassifier classifier = new DelayClassifier(coefficients);
+			List<Integer> legacyCoefficients = toList(coefficients);
+			for (int w = 0; w < 20; ++w){
+				StringBuilder word = new StringBuilder();
+				if (random.nextInt(10) == 0){
+					word.append(random.nextBoolean() ? "не" : "not");
+				} else {
+					int length = random.nextInt(6);
+					for (int i = 0; i < length; ++i)
+						word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+				}
+				assertDelay(classifier, legacyCoefficients, word.toString());
+			}
+		}
+	}
+
+	private static List<Integer> toList(int[] coefficients){
+		List<Integer> result = new ArrayList<Integer>();
+		for (int coefficient : coefficients)
+			result.add(coefficient);
+		return result;
+	}
+
+	private static void assertDelay(DelayClassifier classifier, List<Integer> legacyCoefficients, String word){
+		char[] chars = word.toCharArray();
+		assertEquals("word: \"" + word + "\"", LegacyDelay.measureWord(word, legacyCoefficients),
+					 classifier.getDelay(DelayClassifier.classify(chars, 0, chars.length)));
+	}
+}
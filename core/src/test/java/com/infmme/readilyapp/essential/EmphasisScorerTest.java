@@ -0,0 +1,62 @@
+package com.infmme.readilyapp.essential;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * EmphasisScorer has to choose the same letters as the former buildEmphasis() of TextParser
+ */
+public class EmphasisScorerTest {
+
+	private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ" +
+			"абвгдеёжзийклмнопрстуфхцчшщъыьэюяАБВГДЕЁЖЗИЙКЛМНОПРСТУФХЦЧШЩЪЫЬЭЮЯґіїєҐІЇЄ.,-!?'\"1éKİßÆ";
+	private static final int WORD_LIST_SIZE = 1000000;
+
+	@Test
+	public void corpusWords() throws IOException{
+		EmphasisScorer scorer = new EmphasisScorer();
+		for (String language : Corpora.LANGUAGES){
+			TokenBuffer tokens = Corpora.loadWords(language);
+			for (int i = 0; i < tokens.size(); ++i)
+				assertScore(scorer, tokens.getWord(i));
+		}
+	}
+
+	@Test
+	public void edgeCases(){
+		EmphasisScorer scorer = new EmphasisScorer();
+		String[] words = {"", "a", ".", "ъ", "ьъ", "aa", "Aa", "ббб", "привет", "Їжак", "hello,", "\"word\"",
+				"interconnectedness", "ЗДРАВСТВУЙТЕ", "ßeta", "Kelvin"};
+		for (String word : words)
+			assertScore(scorer, word);
+	}
+
+	/**
+	 * Words of up to 16 chars taken from random ranges of the alphabet, so letters repeat often,
+	 * with occasional arbitrary chars below U+3000
+	 */
+	@Test
+	public void largeWordList(){
+		EmphasisScorer scorer = new EmphasisScorer();
+		Random random = new Random(1);
+		for (int k = 0; k < WORD_LIST_SIZE; ++k){
+			char[] chars = new char[1 + random.nextInt(16)];
+			int range = 2 + random.nextInt(ALPHABET.length() - 1);
+			int offset = random.nextInt(ALPHABET.length() - range + 1);
+			for (int i = 0; i < chars.length; ++i)
+				chars[i] = (random.nextInt(20) == 0)
+						? (char) random.nextInt(0x3000)
+						: ALPHABET.charAt(offset + random.nextInt(range));
+			assertScore(scorer, new String(chars));
+		}
+	}
+
+	private static void assertScore(EmphasisScorer scorer, String word){
+		char[] chars = word.toCharArray();
+		assertEquals("word: \"" + word + "\"", LegacyEmphasis.score(word), scorer.score(chars, 0, chars.length));
+	}
+}
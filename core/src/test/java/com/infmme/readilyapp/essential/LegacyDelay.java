@@ -0,0 +1,57 @@
+package com.infmme.readilyapp.essential;
+
+import java.util.List;
+
+/**
+ * measureWord() of TextParser as it was before DelayClassifier, kept as a baseline
+ */
+public class LegacyDelay {
+
+	public static int measureWord(String word, List<Integer> delayCoefficients){
+		if (word.length() == 0)
+			return delayCoefficients.get(0);
+		if ((word.length() == 2 && word.equals("не")) ||
+				(word.length() == 3 && word.equals("not")))
+			return delayCoefficients.get(5);
+		int res = 0;
+		int tempRes;
+		for (char ch : word.toCharArray()){
+			tempRes = delayCoefficients.get(0);
+			if (Character.isDigit(ch))
+				tempRes = delayCoefficients.get(1);
+			if (ch == '\t')
+				tempRes = delayCoefficients.get(4);
+			switch (ch){
+				case ',':
+					tempRes = delayCoefficients.get(1);
+					break;
+				case '.':
+					tempRes = delayCoefficients.get(2);
+					break;
+				case '!':
+					tempRes = delayCoefficients.get(2);
+					break;
+				case '?':
+					tempRes = delayCoefficients.get(2);
+					break;
+				case '-':
+					tempRes = delayCoefficients.get(3);
+					break;
+				case '—':
+					tempRes = delayCoefficients.get(3);
+					break;
+				case ':':
+					tempRes = delayCoefficients.get(3);
+					break;
+				case ';':
+					tempRes = delayCoefficients.get(3);
+					break;
+				case '\n':
+					tempRes = delayCoefficients.get(4);
+			}
+			if (tempRes > res)
+				res = tempRes;
+		}
+		return res;
+	}
+}
@@ -0,0 +1,68 @@
+package com.infmme.readilyapp.essential;
+
+import com.infmme.readilyapp.util.Pair;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * buildEmphasis() of TextParser as it was before EmphasisScorer, kept as a baseline
+ */
+public class LegacyEmphasis {
+
+	private static final int MAX_LEFT_CHARACTER_COUNT = 8;
+	private static final Map<String, Integer> PRIORITIES;
+
+	static{
+		Map<String, Integer> priorityMap = new HashMap<String, Integer>();
+		final String englishAlpha = "abcdefghijklmnoprstuvwxyz";
+		final int[] englishPriorities =
+				{10, 4, 4, 4, 9, 12, 10, 12, 8, 10, 8, 6, 6, 5, 8, 6, 12, 5, 15, 12, 14, 12, 14, 13, 14, 12};
+		int i = 0;
+		for (char c : englishAlpha.toCharArray()){ priorityMap.put(Character.toString(c), englishPriorities[i++]); }
+		final String russianAlpha = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+		final int[] russianPriorities =
+				{10, 4, 4, 7, 4, 7, 14, 9, 9, 6, 7, 5, 4, 4, 4, 10, 8, 10, 12, 5, 9, 15, 14, 14, 13, 10, 10, 0, 10, 0,
+						10, 12, 11};
+		i = 0;
+		for (char c : russianAlpha.toCharArray()){ priorityMap.put(Character.toString(c), russianPriorities[i++]); }
+		final String uniqueUkrainianChars = "ґіїє";
+		final int[] ukrainianPriorities = {15, 14, 18, 12};
+		i = 0;
+		for (char c : uniqueUkrainianChars.toCharArray()){
+			priorityMap.put(Character.toString(c), ukrainianPriorities[i++]);
+		}
+
+		PRIORITIES = Collections.unmodifiableMap(priorityMap);
+	}
+
+	public static int score(String word){
+		Map<String, Pair<Integer, Integer>> priorities = new HashMap<String, Pair<Integer, Integer>>();
+		int len = word.length();
+		for (int i = 0; i < Math.min(MAX_LEFT_CHARACTER_COUNT, len); ++i){
+			if (!Character.isLetter(word.charAt(i))) continue;
+
+			String ch = word.substring(i, i + 1).toLowerCase();
+			if (PRIORITIES.get(ch) != null &&
+					(priorities.get(ch) == null ||
+							priorities.get(ch).first < PRIORITIES.get(ch) * 100 / Math.max(1, Math.abs(len / 2 - i)))){
+				priorities.put(ch,
+							   new Pair<Integer, Integer>(PRIORITIES.get(ch) * 100 / Math.max(1, Math.abs(len / 2 - i)),
+														  i));
+			} else { priorities.put(ch, new Pair<Integer, Integer>(0, i)); }
+			if (i + 1 < word.length() && word.charAt(i) == word.charAt(i + 1)){
+				priorities.put(ch, new Pair<Integer, Integer>(priorities.get(ch).first * 4, i));
+			}
+		}
+		int resInd = word.length() / 2;
+		int mmax = 0;
+		for (Map.Entry<String, Pair<Integer, Integer>> entry : priorities.entrySet()){
+			if (mmax < entry.getValue().first){
+				mmax = entry.getValue().first;
+				resInd = entry.getValue().second;
+			}
+		}
+		return resInd;
+	}
+}
@@ -0,0 +1,80 @@
+package com.infmme.readilyapp.essential;
+
+/**
+ * normalize() chain of TextParser as it was before TextNormalizer, kept as a baseline
+ */
+public class LegacyNormalizer {
+
+	private static final String makeMeSpecial =
+			" " + "." + "!" + "?" + "-" + "—" + ":" + ";" + "," + '\"' + "(" + ")";
+
+	public static String normalize(String text){
+		return handleAbbreviations(
+				insertSpacesAfterPunctuation(
+						removeSpacesBeforePunctuation(
+								clearFromRepetitions(
+										text.replaceAll("\\s+", " ")
+													)
+													 )
+											)
+								  );
+	}
+
+	private static String clearFromRepetitions(String text){
+		StringBuilder res = new StringBuilder();
+		int previousPosition = -1;
+		for (char ch : text.toCharArray()){
+			int position = makeMeSpecial.indexOf(ch);
+			if (position > -1 && position != previousPosition){
+				previousPosition = position;
+				res.append(ch);
+			} else if (position < 0){
+				previousPosition = -1;
+				res.append(ch);
+			}
+		}
+		return res.toString();
+	}
+
+	private static String removeSpacesBeforePunctuation(String text){
+		StringBuilder res = new StringBuilder();
+		String madeMeSpecial = makeMeSpecial.substring(1, 9) + ")";
+		for (char ch : text.toCharArray()){
+			if (madeMeSpecial.indexOf(ch) > -1 &&
+					res.length() > 0 &&
+					" ".equals(res.substring(res.length() - 1))){ res.deleteCharAt(res.length() - 1); }
+			res.append(ch);
+		}
+		return res.toString();
+	}
+
+	private static String insertSpacesAfterPunctuation(String text){
+		StringBuilder res = new StringBuilder();
+		String madeMeSpecial = makeMeSpecial.substring(1, 9) + ")";
+		char ch;
+		char nextCh;
+		for (int i = 0; i < text.length(); ++i){
+			ch = text.charAt(i);
+			res.append(ch);
+			if (i < text.length() - 1){
+				nextCh = text.charAt(i + 1);
+				if (madeMeSpecial.indexOf(ch) > -1 && Character.isLetter(nextCh))
+					res.append(" ");
+			}
+		}
+		return res.toString();
+	}
+
+	private static String handleAbbreviations(String text){
+		StringBuilder res = new StringBuilder();
+		for (int i = 0; i < text.length(); ++i){
+			if (i > 0 && text.charAt(i - 1) == '.'){
+				if (!(i + 2 < text.length() && text.charAt(i + 2) == '.'))
+					res.append(text.charAt(i));
+			} else {
+				res.append(text.charAt(i));
+			}
+		}
+		return res.toString();
+	}
+}
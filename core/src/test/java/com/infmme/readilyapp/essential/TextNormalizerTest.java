@@ -0,0 +1,49 @@
+package com.infmme.readilyapp.essential;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Output of TextNormalizer has to be the same as of the former chain of TextParser
+ */
+public class TextNormalizerTest {
+
+	private static final String ALPHABET = "abcXYZабвїєґ  \n\t\r.!?-—:;,\"()'01";
+
+	@Test
+	public void corpusChunks() throws IOException{
+		for (String language : Corpora.LANGUAGES){
+			String text = Corpora.load(language);
+			assertNormalized(text);
+			for (int i = 0; i < text.length(); i += Corpora.CHUNK_SIZE)
+				assertNormalized(text.substring(i, Math.min(text.length(), i + Corpora.CHUNK_SIZE)));
+		}
+	}
+
+	@Test
+	public void edgeCases(){
+		String[] texts = {"", " ", "  ", ".", "...", "a.b", "a. b.", "т.е. так", "a ,b", "a , , b", "(a) b",
+				"a—b", "a - - b", "\"a\"b", "a.\n\nb", "1.2.3", "a?!b", "a.b.c.d", ". a", "a. ."};
+		for (String text : texts)
+			assertNormalized(text);
+	}
+
+	@Test
+	public void randomTexts(){
+		Random random = new Random(1);
+		for (int k = 0; k < 200000; ++k){
+			char[] chars = new char[random.nextInt(40)];
+			for (int i = 0; i < chars.length; ++i)
+				chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			assertNormalized(new String(chars));
+		}
+	}
+
+	private static void assertNormalized(String text){
+		assertEquals("text: \"" + text + "\"", LegacyNormalizer.normalize(text), TextNormalizer.normalize(text));
+	}
+}
@@ -0,0 +1,191 @@
+package com.infmme.readilyapp.platform;
+
+import com.infmme.readilyapp.database.DataBundle;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingPositionStoreTest {
+
+	private static final long TIMEOUT = 5000;
+
+	@Test
+	public void changesOfPathAreCoalesced() throws Exception{
+		TestStore store = new TestStore();
+		store.save(row("/a", 1));
+		store.save(row("/b", 1));
+		store.save(row("/a", 2));
+		store.delete("/c");
+		store.flush();
+
+		Map<String, DataBundle> batch = store.takeBatch();
+		assertEquals(Arrays.asList("/a", "/b", "/c"), new ArrayList<String>(batch.keySet()));
+		assertEquals(2, batch.get("/a").getPosition());
+		assertNull(batch.get("/c"));
+		assertEquals(2, store.stored.get("/a").getPosition());
+		assertFalse(store.stored.containsKey("/c"));
+	}
+
+	@Test
+	public void findSeesPendingAndWrittenRowsAsCopies() throws Exception{
+		TestStore store = new TestStore();
+		store.blockWrites();
+		DataBundle saved = row("/a", 1);
+		store.save(saved);
+		saved.setPosition(5);
+		DataBundle found = store.find("/a");
+		assertEquals(1, found.getPosition());
+		found.setPosition(7);
+		assertEquals(1, store.find("/a").getPosition());
+
+		store.flush();
+		store.awaitWriteStarted();
+		assertEquals("row being written is found", 1, store.find("/a").getPosition());
+		store.delete("/a");
+		assertNull("pending deletion wins over the row being written", store.find("/a"));
+		assertEquals(0, store.findStoredCount);
+		store.unblockWrites();
+		store.takeBatch();
+		store.flush();
+		store.takeBatch();
+		store.awaitIdle();
+		assertNull(store.find("/a"));
+		assertEquals(1, store.findStoredCount);
+	}
+
+	@Test
+	public void cancelWaitsForBatchBeingWritten() throws Exception{
+		final TestStore store = new TestStore();
+		store.blockWrites();
+		store.save(row("/a", 1));
+		store.flush();
+		store.awaitWriteStarted();
+		store.save(row("/b", 1));
+
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		Thread canceller = new Thread(new Runnable() {
+			@Override
+			public void run(){
+				store.cancel(Arrays.asList("/a", "/b"));
+				cancelled.set(true);
+			}
+		});
+		canceller.start();
+		canceller.join(200);
+		assertTrue("cancel() returned while a batch is written", canceller.isAlive());
+		store.unblockWrites();
+		canceller.join(TIMEOUT);
+		assertTrue(cancelled.get());
+
+		assertEquals(Collections.singleton("/a"), store.takeBatch().keySet());
+		assertNull("pending save is cancelled", store.find("/b"));
+		store.flush();
+		assertNull(store.batches.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void failedBatchIsWrittenAgain() throws Exception{
+		TestStore store = new TestStore();
+		store.blockWrites();
+		store.failures = 1;
+		store.save(row("/a", 1));
+		store.save(row("/b", 1));
+		store.flush();
+		store.awaitWriteStarted();
+		store.save(row("/a", 2));
+		store.unblockWrites();
+
+		store.flush();
+		Map<String, DataBundle> batch = store.takeBatch();
+		assertEquals(2, batch.size());
+		assertEquals("later change wins over the failed one", 2, batch.get("/a").getPosition());
+		assertEquals(1, batch.get("/b").getPosition());
+		assertNotNull(store.stored.get("/b"));
+	}
+
+	private static DataBundle row(String path, int position){
+		return new DataBundle("header", path, position, 0, "0%");
+	}
+
+	private static class TestStore extends CoalescingPositionStore {
+
+		private final Map<String, DataBundle> stored = Collections.synchronizedMap(new HashMap<String, DataBundle>());
+		/**
+		 * Batches written successfully
+		 */
+		private final BlockingQueue<Map<String, DataBundle>> batches =
+				new LinkedBlockingQueue<Map<String, DataBundle>>();
+		private final CountDownLatch writeStarted = new CountDownLatch(1);
+		private volatile CountDownLatch writeAllowed = new CountDownLatch(0);
+		private volatile int failures;
+		private volatile int findStoredCount;
+
+		void blockWrites(){
+			writeAllowed = new CountDownLatch(1);
+		}
+
+		void unblockWrites(){
+			writeAllowed.countDown();
+		}
+
+		void awaitWriteStarted() throws InterruptedException{
+			assertTrue(writeStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+
+		/**
+		 * Batch is taken before the store finishes writing it, cancel() waits for that
+		 */
+		void awaitIdle(){
+			cancel(Collections.<String>emptyList());
+		}
+
+		Map<String, DataBundle> takeBatch() throws InterruptedException{
+			Map<String, DataBundle> batch = batches.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+			assertNotNull("no batch is written", batch);
+			return batch;
+		}
+
+		@Override
+		protected DataBundle findStored(String path){
+			findStoredCount++;
+			return stored.get(path);
+		}
+
+		@Override
+		protected void write(Map<String, DataBundle> changes){
+			writeStarted.countDown();
+			try {
+				writeAllowed.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			if (failures > 0){
+				failures--;
+				throw new IllegalStateException("write failed");
+			}
+			for (Map.Entry<String, DataBundle> change : changes.entrySet()){
+				if (change.getValue() == null)
+					stored.remove(change.getKey());
+				else
+					stored.put(change.getKey(), change.getValue());
+			}
+			batches.add(new LinkedHashMap<String, DataBundle>(changes));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.infmme.readilyapp.platform;
+
+import com.infmme.readilyapp.database.DataBundle;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Platform for plain JVM: paths are local files, positions are kept in memory
+ */
+public class JvmPlatform implements Platform, PositionStore {
+
+	private final File filesDir;
+	private final File cacheDir;
+	private final Map<String, DataBundle> rows = new HashMap<String, DataBundle>();
+
+	public JvmPlatform(File filesDir){
+		this(filesDir, null);
+	}
+
+	/**
+	 * @param cacheDir : directory for parsed chunks, null to parse everything every time
+	 */
+	public JvmPlatform(File filesDir, File cacheDir){
+		this.filesDir = filesDir;
+		this.cacheDir = cacheDir;
+	}
+
+	@Override
+	public String resolvePath(String path){
+		return path;
+	}
+
+	@Override
+	public File getFilesDir(){
+		return filesDir;
+	}
+
+	@Override
+	public boolean isCacheEnabled(){
+		return false;
+	}
+
+	@Override
+	public File getCacheDir(){
+		return cacheDir;
+	}
+
+	@Override
+	public PositionStore getPositionStore(){
+		return this;
+	}
+
+	@Override
+	public synchronized DataBundle find(String path){
+		return rows.get(path);
+	}
+
+	@Override
+	public synchronized void save(DataBundle dataBundle){
+		rows.put(dataBundle.getPath(), dataBundle);
+	}
+
+	@Override
+	public synchronized void delete(String path){
+		rows.remove(path);
+	}
+
+	@Override
+	public void flush(){}
+}
@@ -0,0 +1,291 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.database.DataBundle;
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.platform.JvmPlatform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compiled books give the same chunks and words as parsing of the books themselves
+ */
+public class CompiledBookTest {
+
+	private File dir;
+	private File cacheDir;
+
+	@Before
+	public void setUp() throws IOException{
+		dir = File.createTempFile("compiled", "");
+		dir.delete();
+		cacheDir = new File(dir, "cache");
+		assertTrue(cacheDir.mkdirs());
+	}
+
+	@After
+	public void tearDown(){
+		delete(dir);
+	}
+
+	@Test
+	public void findChunk() throws IOException{
+		File book = writeBook("book.txt", "x");
+		writeCompiled(book, new long[][]{{0, 100}, {100, 50}, {150, 0}}, Integer.MAX_VALUE);
+		CompiledBook compiled = CompiledBook.open(cacheDir, book);
+		assertNotNull(compiled);
+		assertEquals(3, compiled.getChunkCount());
+		assertEquals(0, compiled.findChunk(0));
+		assertEquals(0, compiled.findChunk(99));
+		assertEquals(1, compiled.findChunk(100));
+		assertEquals(1, compiled.findChunk(149));
+		assertEquals("zero-length last chunk is found at its start", 2, compiled.findChunk(150));
+		assertEquals("past the end", 3, compiled.findChunk(151));
+
+		writeCompiled(book, new long[][]{{0, 100}, {100, 50}}, Integer.MAX_VALUE);
+		compiled = CompiledBook.open(cacheDir, book);
+		assertEquals(1, compiled.findChunk(149));
+		assertEquals("past the end", 2, compiled.findChunk(150));
+
+		writeCompiled(book, new long[0][], Integer.MAX_VALUE);
+		assertEquals(0, CompiledBook.open(cacheDir, book).findChunk(0));
+	}
+
+	@Test
+	public void countWordsBefore(){
+		TokenBuffer tokens = TokenBuffer.tokenize("one two three four");
+		assertEquals(4, tokens.size());
+		assertEquals(0, CompiledFileStorable.countWordsBefore(tokens, 0, 100));
+		assertEquals(1, CompiledFileStorable.countWordsBefore(tokens, 10, 100));
+		assertEquals(3, CompiledFileStorable.countWordsBefore(tokens, 50, 100));
+		assertEquals(4, CompiledFileStorable.countWordsBefore(tokens, 100, 100));
+		assertEquals("offset past the chunk", 4, CompiledFileStorable.countWordsBefore(tokens, 500, 100));
+		assertEquals("zero-length chunk", 0, CompiledFileStorable.countWordsBefore(tokens, 10, 0));
+	}
+
+	@Test
+	public void changedBookIsRejected() throws IOException{
+		File book = writeBook("book.txt", "x");
+		writeCompiled(book, new long[][]{{0, 1}}, Integer.MAX_VALUE);
+		assertTrue(CompiledBook.isCompiled(cacheDir, book));
+		assertTrue(book.setLastModified(book.lastModified() - 10000));
+		assertFalse(CompiledBook.isCompiled(cacheDir, book));
+		assertFalse("compiled file is deleted", getCompiledFile(book).exists());
+
+		writeCompiled(book, new long[][]{{0, 1}}, Integer.MAX_VALUE);
+		writeBook("book.txt", "xy");
+		assertNull(CompiledBook.open(cacheDir, book));
+		assertFalse(getCompiledFile(book).exists());
+	}
+
+	@Test
+	public void corruptedHeaderIsRejected() throws IOException{
+		File book = writeBook("book.txt", "x");
+		File file = getCompiledFile(book);
+
+		writeCompiled(book, new long[][]{{0, 1}}, Integer.MAX_VALUE);
+		corrupt(file, 0, CompiledBook.MAGIC + 1);
+		assertNull("wrong magic", CompiledBook.open(cacheDir, book));
+		assertFalse(file.exists());
+
+		writeCompiled(book, new long[][]{{0, 1}}, Integer.MAX_VALUE);
+		corrupt(file, 4 + 4 + 4 + 8 + 8, Integer.MAX_VALUE);
+		assertFalse("huge length of path", CompiledBook.isCompiled(cacheDir, book));
+		assertFalse(file.exists());
+
+		writeCompiled(book, new long[][]{{0, 1}}, Integer.MAX_VALUE);
+		corrupt(file, 4 + 4 + 4 + 8 + 8, -1);
+		assertNull("negative length of path", CompiledBook.open(cacheDir, book));
+		assertFalse(file.exists());
+
+		writeCompiled(book, new long[][]{{0, 1}}, Integer.MAX_VALUE);
+		RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+		try {
+			truncated.setLength(4 + 4 + 4 + 8 + 8 + 4 + 2);
+		} finally {
+			truncated.close();
+		}
+		assertFalse("truncated path", CompiledBook.isCompiled(cacheDir, book));
+		assertFalse(file.exists());
+
+		writeCompiled(book, new long[][]{{0, 1}}, 1000);
+		assertTrue("header up to path is valid", CompiledBook.isCompiled(cacheDir, book));
+		assertNull("chunk count past the end of the file", CompiledBook.open(cacheDir, book));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void txtRoundTrip() throws IOException{
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 3000; ++i)
+			text.append("Line ").append(i).append(" is a line of the text, it has some words.\n");
+		File book = writeBook("book.txt", text.toString());
+		assertRoundTrip(new TxtFileStorable(book.getAbsolutePath()), new TxtFileStorable(book.getAbsolutePath()));
+	}
+
+	@Test
+	public void fb2RoundTrip() throws IOException{
+		StringBuilder text = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<FictionBook>\n" +
+				"<description><title-info><book-title>Test</book-title></title-info></description>\n<body>\n<section>\n");
+		for (int i = 0; i < 1000; ++i)
+			text.append("<p>Paragraph ").append(i).append(" has <emphasis>several</emphasis> words in it.</p>\n");
+		text.append("</section>\n</body>\n</FictionBook>\n");
+		File book = writeBook("book.fb2", text.toString());
+		assertRoundTrip(new FB2FileStorable(book.getAbsolutePath()), new FB2FileStorable(book.getAbsolutePath()));
+	}
+
+	/**
+	 * Compiled book has the same chunks as the parsed one, reading resumed at every chunk gives the same words
+	 */
+	private void assertRoundTrip(FileStorable plain, FileStorable source){
+		JvmPlatform plainPlatform = new JvmPlatform(dir);
+		List<Long> starts = new ArrayList<Long>();
+		List<List<String>> chunks = new ArrayList<List<String>>();
+		read(plainPlatform, plain, starts, chunks);
+		assertTrue("book has to be split into several chunks", chunks.size() > 2);
+
+		JvmPlatform platform = new JvmPlatform(dir, cacheDir);
+		String path = source.getPath();
+		assertTrue(CompiledBook.compile(platform, source));
+		assertTrue(CompiledBook.isCompiled(cacheDir, new File(path)));
+		for (int chunk = 0; chunk < chunks.size(); ++chunk){
+			long bytePosition = starts.get(chunk);
+			platform.save(new DataBundle("Test", path, 0, bytePosition, "0%"));
+			FileStorable compiled = CompiledFileStorable.wrap(platform, createStorable(source, path));
+			assertTrue(compiled instanceof CompiledFileStorable);
+			List<Long> resumedStarts = new ArrayList<Long>();
+			List<List<String>> resumed = new ArrayList<List<String>>();
+			read(platform, compiled, resumedStarts, resumed);
+			assertEquals("resumed at chunk " + chunk, starts.subList(chunk, starts.size()), resumedStarts);
+			assertEquals("resumed at chunk " + chunk, flatten(chunks, chunk), flatten(resumed, 0));
+		}
+	}
+
+	private static FileStorable createStorable(FileStorable source, String path){
+		return (source instanceof FB2FileStorable) ? new FB2FileStorable(path) : new TxtFileStorable(path);
+	}
+
+	/**
+	 * Reads the book from its saved position to the end
+	 */
+	private static void read(JvmPlatform platform, FileStorable storable, List<Long> starts, List<List<String>> chunks){
+		storable.process(platform);
+		storable.readData();
+		TextParser parser = new TextParser(storable);
+		parser.process();
+		while (parser.getReadable().getText().length() > 0){
+			FileStorable current = (FileStorable) parser.getReadable();
+			starts.add(current.getBytePosition());
+			TokenBuffer tokens = current.getTokens();
+			List<String> words = new ArrayList<String>();
+			for (int i = 0; i < tokens.size(); ++i)
+				if (tokens.getLength(i) > 0)
+					words.add(tokens.getWord(i));
+			chunks.add(words);
+			parser = new TextParser(current.getNext());
+			parser.process();
+		}
+		storable.onClose(platform, false, false);
+	}
+
+	private static List<String> flatten(List<List<String>> chunks, int from){
+		List<String> result = new ArrayList<String>();
+		for (int i = from; i < chunks.size(); ++i)
+			result.addAll(chunks.get(i));
+		return result;
+	}
+
+	private File writeBook(String name, String text) throws IOException{
+		File book = new File(dir, name);
+		Writer writer = new OutputStreamWriter(new FileOutputStream(book), "UTF-8");
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+		return book;
+	}
+
+	private File getCompiledFile(File book){
+		return CompiledBook.getFile(cacheDir, book.getAbsolutePath());
+	}
+
+	/**
+	 * Writes a compiled file in the format of CompiledBook, every chunk has one word
+	 *
+	 * @param index      : byte position and length of every chunk
+	 * @param chunkCount : count of chunks written to the header, Integer.MAX_VALUE for the real one
+	 */
+	private void writeCompiled(File book, long[][] index, int chunkCount) throws IOException{
+		File file = getCompiledFile(book);
+		file.getParentFile().mkdirs();
+		String path = book.getAbsolutePath();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(CompiledBook.MAGIC);
+			out.writeInt(CompiledBook.FORMAT_VERSION);
+			out.writeInt(TextParser.VERSION);
+			out.writeLong(book.length());
+			out.writeLong(book.lastModified());
+			out.writeInt(path.length());
+			out.writeChars(path);
+			out.writeInt(Readable.TYPE_TXT);
+			out.writeInt(0);
+			out.writeInt((chunkCount == Integer.MAX_VALUE) ? index.length : chunkCount);
+			List<byte[]> data = new ArrayList<byte[]>();
+			int offset = 0;
+			for (int i = 0; i < index.length; ++i){
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream tokens = new DataOutputStream(bytes);
+				TokenBuffer.tokenize("word" + i).writeTo(tokens);
+				tokens.close();
+				data.add(bytes.toByteArray());
+				out.writeLong(index[i][0]);
+				out.writeLong(index[i][1]);
+				out.writeInt(offset);
+				offset += bytes.size();
+			}
+			for (byte[] bytes : data)
+				out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void corrupt(File file, long offset, int value) throws IOException{
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.seek(offset);
+			randomAccessFile.writeInt(value);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private static void delete(File file){
+		File[] files = file.listFiles();
+		if (files != null)
+			for (File child : files)
+				delete(child);
+		file.delete();
+	}
+}
@@ -0,0 +1,108 @@
+package com.infmme.readilyapp.readable;
+
+import com.infmme.readilyapp.database.DataBundle;
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.platform.JvmPlatform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reading resumed from the start of every chunk gives the same words as reading from the beginning
+ */
+public class FB2FileStorableTest {
+
+	private static final int LONG_PARAGRAPH_WORDS = 6000;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException{
+		file = File.createTempFile("book", ".fb2");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<FictionBook>\n<description><title-info>" +
+								 "<book-title>Test</book-title></title-info></description>\n<body>\n<section>\n" +
+								 "<title><p>Chapter one</p></title>\n");
+			for (int i = 0; i < 200; ++i)
+				writer.write("<p>Short paragraph " + i + " has <emphasis>several</emphasis> words in it.</p>\n");
+			writer.write("<section><p>");
+			//inline tags split the paragraph into many events
+			for (int i = 0; i < LONG_PARAGRAPH_WORDS; ++i)
+				writer.write((i % 10 == 9) ? "word" + i + " <emphasis>x</emphasis> " : "word" + i + " ");
+			writer.write("</p></section>\n");
+			for (int i = 0; i < 200; ++i)
+				writer.write("<p>Closing paragraph " + i + ".</p>\n");
+			writer.write("</section>\n</body>\n<binary id=\"cover.jpg\">AAAA</binary>\n</FictionBook>\n");
+		} finally {
+			writer.close();
+		}
+	}
+
+	@After
+	public void tearDown(){
+		file.delete();
+	}
+
+	@Test
+	public void resumeAtEveryChunk() throws IOException{
+		List<Long> starts = new ArrayList<Long>();
+		List<List<String>> chunks = new ArrayList<List<String>>();
+		read(0, starts, chunks);
+		assertTrue("book has to be split into several chunks", chunks.size() > 2);
+		assertTrue(flatten(chunks, 0).contains("word" + (LONG_PARAGRAPH_WORDS - 1)));
+
+		for (int chunk = 1; chunk < chunks.size(); ++chunk){
+			List<List<String>> resumed = new ArrayList<List<String>>();
+			read(starts.get(chunk), new ArrayList<Long>(), resumed);
+			assertEquals("resumed at chunk " + chunk, flatten(chunks, chunk), flatten(resumed, 0));
+		}
+	}
+
+	/**
+	 * Reads the book from a saved byte position to the end
+	 */
+	private void read(long bytePosition, List<Long> starts, List<List<String>> chunks){
+		JvmPlatform platform = new JvmPlatform(file.getParentFile());
+		String path = file.getAbsolutePath();
+		if (bytePosition > 0)
+			platform.save(new DataBundle("Test", path, 0, bytePosition, "0%"));
+		FileStorable storable = new FB2FileStorable(path);
+		storable.process(platform);
+		storable.readData();
+		TextParser parser = new TextParser(storable);
+		parser.process();
+		while (parser.getReadable().getText().length() > 0){
+			FileStorable current = (FileStorable) parser.getReadable();
+			starts.add(current.getBytePosition());
+			TokenBuffer tokens = current.getTokens();
+			List<String> words = new ArrayList<String>();
+			for (int i = 0; i < tokens.size(); ++i)
+				if (tokens.getLength(i) > 0)
+					words.add(tokens.getWord(i));
+			chunks.add(words);
+			parser = new TextParser(current.getNext());
+			parser.process();
+		}
+		storable.onClose(platform, false, false);
+	}
+
+	private static List<String> flatten(List<List<String>> chunks, int from){
+		List<String> result = new ArrayList<String>();
+		for (int i = from; i < chunks.size(); ++i)
+			result.addAll(chunks.get(i));
+		return result;
+	}
+}
@@ -0,0 +1,66 @@
+package com.infmme.readilyapp.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkQueueTest {
+
+	private static final long TIMEOUT = 5000;
+
+	@Test
+	public void putWaitsWhileLimitIsLowered() throws Exception{
+		final ChunkQueue<Integer> queue = new ChunkQueue<Integer>(4);
+		assertTrue(queue.offer(0));
+		assertTrue(queue.offer(1));
+		queue.setLimit(1);
+		assertFalse(queue.offer(2));
+
+		final AtomicBoolean put = new AtomicBoolean();
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run(){
+				try {
+					put.set(queue.put(2));
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		producer.start();
+		assertEquals(Integer.valueOf(0), queue.poll());
+		producer.join(200);
+		assertTrue("item can't be put while count is over the limit", producer.isAlive());
+		assertEquals(Integer.valueOf(1), queue.poll());
+		producer.join(TIMEOUT);
+		assertFalse(producer.isAlive());
+		assertTrue(put.get());
+		assertEquals(Integer.valueOf(2), queue.poll());
+	}
+
+	@Test
+	public void putFailsWhenClosed() throws Exception{
+		final ChunkQueue<Integer> queue = new ChunkQueue<Integer>(1);
+		assertTrue(queue.put(0));
+		final AtomicBoolean put = new AtomicBoolean(true);
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run(){
+				try {
+					put.set(queue.put(1));
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		producer.start();
+		queue.close();
+		producer.join(TIMEOUT);
+		assertFalse(producer.isAlive());
+		assertFalse(put.get());
+	}
+}
@@ -15,6 +15,7 @@ import android.widget.AbsListView;
 import android.widget.ListView;
 import android.widget.TextView;
 import com.infmme.readilyapp.database.LastReadContentProvider;
+import com.infmme.readilyapp.database.LastReadDBHelper;
 import com.infmme.readilyapp.util.CachedFilesAdapter;
 
 public class FileListFragment extends Fragment implements LoaderManager.LoaderCallbacks<Cursor> {
@@ -64,7 +65,7 @@ public class FileListFragment extends Fragment implements LoaderManager.LoaderCa
 	@Override
 	public Loader<Cursor> onCreateLoader(int id, Bundle args){
 		return new CursorLoader(getActivity(), LastReadContentProvider.CONTENT_URI,
-								null, null, null, null);
+								null, null, null, LastReadDBHelper.ORDER_RECENT_FIRST);
 	}
 
 	@Override
@@ -14,6 +14,7 @@ import com.crashlytics.android.Crashlytics;
 import com.infmme.readilyapp.instructions.InstructionsActivity;
 import com.infmme.readilyapp.readable.FileStorable;
 import com.infmme.readilyapp.readable.Readable;
+import com.infmme.readilyapp.service.PreprocessService;
 import com.infmme.readilyapp.service.StorageCheckerService;
 import com.infmme.readilyapp.settings.SettingsActivity;
 import com.infmme.readilyapp.util.BaseActivity;
@@ -30,6 +31,7 @@ public class MainActivity extends BaseActivity {
 		isAnybodyOutThere(this);
 
 		startService(createCheckerServiceIntent());
+		PreprocessService.start(this);
 
 		Crashlytics.start(this);
 
@@ -103,6 +105,7 @@ public class MainActivity extends BaseActivity {
 						String relativePath = FileUtils.getPath(this, data.getData());
 						if (FileStorable.isExtensionValid(FileUtils.getExtension(relativePath))){
 							ReceiverActivity.startReceiverActivity(this, Readable.TYPE_FILE, relativePath);
+							PreprocessService.start(this, relativePath);
 						} else {
 							Toast.makeText(this, R.string.wrong_ext, Toast.LENGTH_SHORT).show();
 						}
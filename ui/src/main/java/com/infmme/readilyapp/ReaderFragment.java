@@ -7,36 +7,46 @@ import android.content.res.Resources;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.support.v4.app.Fragment;
-import android.text.Html;
-import android.text.Spanned;
 import android.text.TextUtils;
-import android.util.TypedValue;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.*;
 import com.daimajia.androidanimations.library.Techniques;
 import com.daimajia.androidanimations.library.YoYo;
+import com.infmme.readilyapp.database.RowCache;
+import com.infmme.readilyapp.essential.DelayClassifier;
+import com.infmme.readilyapp.essential.PrefetchPolicy;
 import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.essential.TokenBuffer;
+import com.infmme.readilyapp.essential.WordScheduler;
+import com.infmme.readilyapp.platform.AndroidPlatform;
+import com.infmme.readilyapp.platform.Platform;
+import com.infmme.readilyapp.readable.BookCompiler;
+import com.infmme.readilyapp.readable.CompiledFileStorable;
 import com.infmme.readilyapp.readable.FileStorable;
 import com.infmme.readilyapp.readable.Readable;
+import com.infmme.readilyapp.readable.ReadableFactory;
 import com.infmme.readilyapp.readable.Storable;
 import com.infmme.readilyapp.settings.SettingsBundle;
+import com.infmme.readilyapp.util.ChunkQueue;
 import com.infmme.readilyapp.util.OnSwipeTouchListener;
-
-import java.util.ArrayDeque;
-import java.util.List;
+import com.infmme.readilyapp.util.WordView;
 
 /**
  * infm : 16/05/14. Enjoy it ;)
  */
 public class ReaderFragment extends Fragment {
 
+	private static final String TAG = "ReaderFragment";
 	private static final int NOTIF_APPEARING_DURATION = 300;
 	private static final int NOTIF_SHOWING_LENGTH = 1500; //time in ms for which notification becomes visible
 	private static final int READER_PULSE_DURATION = 400; //ms duration of 'Bounce' animation on reader window
+	private static final int CHUNK_WAITING_DELAY = 100; //ms to wait for the next chunk which isn't parsed yet
 	private static final float POINTER_LEFT_PADDING_COEFFICIENT = 5f / 18f; //some magic number
 	private static final String[] LIGHT_COLOR_SET = new String[]{"#0A0A0A", "#AAAAAA"};
 	private static final String[] DARK_COLOR_SET = new String[]{"#FFFFFF", "#999999", "#FF282828"};
@@ -54,9 +64,7 @@ public class ReaderFragment extends Fragment {
 	private RelativeLayout infoLayout;
 	private TextView wpmTextView;
 	private TextView positionTextView;
-	private TextView currentTextView;
-	private TextView leftTextView;
-	private TextView rightTextView;
+	private WordView wordView;
 	private TextView notification;
 	private ProgressBar progressBar;
 	private ProgressBar parsingProgressBar;
@@ -64,18 +72,17 @@ public class ReaderFragment extends Fragment {
 	private View upLogo;
 	//initialized in onActivityCreated()
 	private Reader reader;
+	private Platform platform;
 	private Readable readable;
-	private List<String> wordList;
-	private List<Integer> emphasisList;
-	private List<Integer> delayList;
+	private TokenBuffer tokens;
 	private SettingsBundle settingsBundle;
+	private DelayClassifier delayClassifier;
 	private Thread parserThread;
 	private ReaderTask readerTask;
-	private MonitorObject monitorObject;
 	//receiving status
 	private boolean parserReceived = false;
-	private String primaryTextColor = LIGHT_COLOR_SET[0];
-	private String secondaryTextColor = LIGHT_COLOR_SET[1];
+	private int primaryTextColor = Color.parseColor(LIGHT_COLOR_SET[0]);
+	private int secondaryTextColor = Color.parseColor(LIGHT_COLOR_SET[1]);
 	private boolean isFileStorable;
 	private int progress;
 
@@ -110,14 +117,15 @@ public class ReaderFragment extends Fragment {
 		Activity activity = getActivity();
 		setReaderLayoutListener(activity);
 		settingsBundle = new SettingsBundle(PreferenceManager.getDefaultSharedPreferences(activity));
+		delayClassifier = new DelayClassifier(settingsBundle.getDelayCoefficients());
 
 		setReaderBackground();
 		initPrevButton();
 		setReaderFontSize();
 
-		readable = Readable.createReadable(activity, args);
-		monitorObject = new MonitorObject();
-		readerTask = new ReaderTask(monitorObject, readable);
+		platform = new AndroidPlatform(activity.getApplicationContext());
+		readable = ReadableFactory.createReadable(activity, args);
+		readerTask = new ReaderTask(readable);
 		parserThread = new Thread(readerTask);
 		parserThread.start();
 	}
@@ -134,70 +142,6 @@ public class ReaderFragment extends Fragment {
 		this.localTime = localTime;
 	}
 
-	/**
-	 * Generates formatted text before emphasis point
-	 * @param pos : position in wordList
-	 * @return Spanned object to draw
-	 */
-	private Spanned getFormattedLeft(int pos){
-		if (TextUtils.isEmpty(wordList.get(pos)))
-			return Html.fromHtml("");
-		int emphasisPosition = emphasisList.get(pos);
-		return Html.fromHtml("<font color='" + primaryTextColor + "'>" +
-									 wordList.get(pos).substring(0, emphasisPosition) + "</font>");
-	}
-
-	/**
-	 * Generates formatted emphasis character
-	 * @param pos : position in wordList
-	 * @return Spanned object to draw
-	 */
-	private Spanned getFormattedEmphasis(int pos){
-		if (TextUtils.isEmpty(wordList.get(pos)))
-			return Html.fromHtml("");
-		int emphasisPosition = emphasisList.get(pos);
-		return Html.fromHtml("<font color='" + EMPHASIS_CHAR_COLOR + "'>" +
-									 wordList.get(pos).substring(emphasisPosition, emphasisPosition + 1) + "</font>");
-	}
-
-	/**
-	 * Generates formatted text after emphasis character
-	 * (part of current word, if exists and next ones, if option is enabled)
-	 * @param pos : position in wordList
-	 * @return Spanned object to draw
-	 */
-	private Spanned getFormattedRight(int pos){
-		if (TextUtils.isEmpty(wordList.get(pos)))
-			return Html.fromHtml("");
-		int emphasisPosition = emphasisList.get(pos);
-		StringBuilder format = new StringBuilder("<font><font color='" + primaryTextColor + "'>" +
-					wordList.get(pos).substring(emphasisPosition + 1, wordList.get(pos).length()) + "</font>");
-		if (settingsBundle.isShowingContextEnabled())
-			format.append(getNextWordsFormat(pos));
-		format.append("</font>");
-		return Html.fromHtml(format.toString());
-	}
-
-	/**
-	 * Generates Html formatted String of next words in text (called if 'context' option is enabled)
-	 * @param pos : position in wordList
-	 * @return Html format String
-	 */
-	private String getNextWordsFormat(int pos){
-		int charLen = 0;
-		int wordListIndex = pos;
-		StringBuilder format = new StringBuilder("&nbsp;<font color='" + secondaryTextColor + "'>");
-		while (charLen < 40 && wordListIndex < wordList.size() - 1){
-			String word = wordList.get(++wordListIndex);
-			if (!TextUtils.isEmpty(word)){
-				charLen += word.length() + 1;
-				format.append(word).append(" ");
-			}
-		}
-		format.append("</font>");
-		return format.toString();
-	}
-
 	/**
 	 * Finds all Views in main Fragment ViewGroup
 	 * @param v ViewGroup in which views are found
@@ -205,9 +149,7 @@ public class ReaderFragment extends Fragment {
 	private void findViews(ViewGroup v){
 		readerLayout = (RelativeLayout) v.findViewById(R.id.reader_layout);
 		parsingProgressBar = (ProgressBar) v.findViewById(R.id.parsingProgressBar);
-		currentTextView = (TextView) v.findViewById(R.id.currentWordTextView);
-		leftTextView = (TextView) v.findViewById(R.id.leftWordTextView);
-		rightTextView = (TextView) v.findViewById(R.id.rightWordTextView);
+		wordView = (WordView) v.findViewById(R.id.wordView);
 		progressBar = (ProgressBar) v.findViewById(R.id.progressBar);
 		notification = (TextView) v.findViewById(R.id.reader_notification);
 		prevButton = (ImageButton) v.findViewById(R.id.previousWordImageButton);
@@ -291,21 +233,21 @@ public class ReaderFragment extends Fragment {
 								 pointerBottom.getPaddingTop(),
 								 pointerBottom.getPaddingRight(), pointerBottom.getPaddingBottom());
 
-		currentTextView.setTextSize(TypedValue.COMPLEX_UNIT_SP, settingsBundle.getFontSize());
-		leftTextView.setTextSize(TypedValue.COMPLEX_UNIT_SP, settingsBundle.getFontSize());
-		rightTextView.setTextSize(TypedValue.COMPLEX_UNIT_SP, settingsBundle.getFontSize());
+		wordView.setTextSize(fontSizePx);
+		wordView.setAnchor(pointerTop);
 	}
 
 	private void setReaderBackground(){
 		if (settingsBundle.isDarkTheme()){
 			((View) readerLayout.getParent()).setBackgroundColor(Color.parseColor(DARK_COLOR_SET[2]));
-			primaryTextColor = DARK_COLOR_SET[0];
-			secondaryTextColor = DARK_COLOR_SET[1];
+			primaryTextColor = Color.parseColor(DARK_COLOR_SET[0]);
+			secondaryTextColor = Color.parseColor(DARK_COLOR_SET[1]);
 			((ImageView) readerLayout.findViewById(R.id.pointerTopImageView)).
 					setImageResource(R.drawable.word_pointer_dark);
 			((ImageView) readerLayout.findViewById(R.id.pointerBottomImageView)).
 					setImageResource(R.drawable.word_pointer_dark);
 		}
+		wordView.setColors(primaryTextColor, Color.parseColor(EMPHASIS_CHAR_COLOR), secondaryTextColor);
 	}
 
 	private void showNotification(String text){
@@ -409,6 +351,8 @@ public class ReaderFragment extends Fragment {
 
 			if (wpm != wpmNew){
 				settingsBundle.setWPM(wpmNew);
+				if (readerTask != null)
+					readerTask.setWPM(wpmNew);
 				showNotification(wpmNew + " WPM");
 				wpmTextView.setText(wpmNew + " WPM");
 			}
@@ -429,7 +373,7 @@ public class ReaderFragment extends Fragment {
 						parsingProgressBar.clearAnimation();
 						parsingProgressBar.setVisibility(View.GONE);
 						readerLayout.setVisibility(View.VISIBLE);
-						if (initialPosition < wordList.size()){
+						if (initialPosition < tokens.size()){
 							showNotification(R.string.tap_to_start);
 							progress = readable.calcProgress(initialPosition, 0);
 							reader.updateView(initialPosition);
@@ -481,9 +425,7 @@ public class ReaderFragment extends Fragment {
 		parserReceived = true;
 
 		readable = parser.getReadable();
-		wordList = readable.getWordList();
-		emphasisList = readable.getEmphasisList();
-		delayList = readable.getDelayList();
+		tokens = readable.getTokens();
 	}
 
 	private boolean canBeSaved(Readable readable){
@@ -517,20 +459,38 @@ public class ReaderFragment extends Fragment {
 			Storable storable = (Storable) readable;
 			storable.setPosition(reader.getPosition());
 			storable.setApproxCharCount(reader.getApproxCharCount());
-			storable.onClose(getActivity(), reader.isCompleted(), settingsBundle.isStoringComplete());
+			storable.onClose(platform, reader.isCompleted(), settingsBundle.isStoringComplete());
+			platform.getPositionStore().flush();
+			if (isFileStorable && !reader.isCompleted() && !(readable instanceof CompiledFileStorable))
+				BookCompiler.schedule(platform, ReadableFactory.createFileStorable(readable.getPath()));
 		}
 
 		settingsBundle.updatePreferences();
 
 		if (reader != null){
+			logStatistics(reader);
 			reader.setCompleted(true);
 		} else if (parserThread != null && parserThread.isAlive()){
 			parserThread.interrupt();
 		}
+		if (readerTask != null)
+			readerTask.stop();
 		callback.stop();
 		super.onStop();
 	}
 
+	/**
+	 * Speed really achieved in the session is compared to configured one in logcat,
+	 * with stalls of parsing and time of drawing a word
+	 */
+	private void logStatistics(Reader reader){
+		int wpm = settingsBundle.getWPM();
+		WordScheduler scheduler = reader.getScheduler();
+		Log.d(TAG, "WPM configured " + wpm + ", achieved " + scheduler.getAchievedWPM(wpm) + "; " + scheduler +
+				"; " + readerTask.getPrefetchPolicy() + "; draw " + wordView.getAverageDrawMicros() + " us per word; " +
+				RowCache.getInstance());
+	}
+
 	//it's very unflexible, TODO: fix it later
 	@Override
 	public void onConfigurationChanged(Configuration newConfig){
@@ -566,6 +526,7 @@ public class ReaderFragment extends Fragment {
 	private class Reader implements Runnable {
 
 		private Handler readerHandler;
+		private WordScheduler scheduler;
 		private int paused;
 		private int position;
 		private boolean completed;
@@ -574,35 +535,38 @@ public class ReaderFragment extends Fragment {
 		public Reader(Handler readerHandler, int position){
 			this.readerHandler = readerHandler;
 			this.position = position;
+			scheduler = new WordScheduler();
 			paused = 1;
 			approxCharCount = 0;
 		}
 
 		@Override
 		public void run(){
-			int wordListSize = wordList.size();
-			if ((position < wordListSize && !readerTask.isChunkAvailable()) ||
-					(position < wordListSize - FileStorable.LAST_WORD_PREFIX_SIZE && readerTask.isChunkAvailable())){
-				if (wordListSize - position < 100 && monitorObject.isPaused()){
-					try {
-						monitorObject.resumeTask();
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				}
+			int tokensSize = tokens.size();
+			if ((position < tokensSize && !readerTask.isChunkAvailable()) ||
+					(position < tokensSize - FileStorable.LAST_WORD_PREFIX_SIZE && readerTask.isChunkAvailable())){
 				completed = false;
 				if (!isPaused()){
-					approxCharCount += wordList.get(position).length() + 1;
+					approxCharCount += tokens.getLength(position) + 1;
 					progress = readable.calcProgress(position, approxCharCount);
 					updateView(position);
-					readerHandler.postDelayed(this, calcDelay());
+					readerHandler.postAtTime(this, scheduler.next(SystemClock.uptimeMillis(), calcDelay()));
 					position++;
 				}
 			} else if (readerTask.isChunkAvailable()){
-				changeParser(readerTask.removeDequeHead());
+				changeParser(readerTask.pollChunk());
 				position = 0;
-				readerHandler.postDelayed(this, calcDelay());
+				//delay of the last word is already over
+				readerHandler.post(this);
+			} else if (!readerTask.isFinished()){
+				scheduler.stop();
+				//performPlay() restarts polling
+				if (isPaused())
+					return;
+				readerTask.getPrefetchPolicy().onStall(SystemClock.uptimeMillis());
+				readerHandler.postDelayed(this, CHUNK_WAITING_DELAY);
 			} else {
+				scheduler.stop();
 				showNotification(R.string.reading_is_completed);
 				completed = true;
 				paused = 1;
@@ -613,9 +577,12 @@ public class ReaderFragment extends Fragment {
 			return position;
 		}
 
+		public WordScheduler getScheduler(){
+			return scheduler;
+		}
+
 		public void setPosition(int position){
-			if (wordList != null && emphasisList != null && delayList != null &&
-					position < wordList.size() && position >= 0){
+			if (tokens != null && position < tokens.size() && position >= 0){
 				this.position = position;
 				updateView(position);
 				showInfo(this);
@@ -653,6 +620,7 @@ public class ReaderFragment extends Fragment {
 		public void performPause(){
 			if (!isPaused()){
 				paused++;
+				scheduler.stop();
 				YoYo.with(Techniques.Pulse).
 						duration(READER_PULSE_DURATION).
 						playOn(readerLayout);
@@ -671,113 +639,153 @@ public class ReaderFragment extends Fragment {
 				if (!settingsBundle.isSwipesEnabled()){ prevButton.setVisibility(View.INVISIBLE); }
 				hideNotification(true);
 				hideInfo();
+				//only one chain of posts may advance the position
+				readerHandler.removeCallbacks(this);
 				readerHandler.postDelayed(this, READER_PULSE_DURATION + 100);
 			}
 		}
 
 		private int calcDelay(){
-			return (delayList.isEmpty())
+			return (tokens.isEmpty())
 					? 10 * Math.round(100 * 60 * 1f / settingsBundle.getWPM())
-					: delayList.get(position) * Math.round(100 * 60 * 1f / settingsBundle.getWPM());
+					: delayClassifier.getDelay(tokens.getDelayClasses(position)) *
+					Math.round(100 * 60 * 1f / settingsBundle.getWPM());
 		}
 
 		private void updateView(int pos){
-			if (pos >= wordList.size())
+			if (pos >= tokens.size())
 				return;
-			currentTextView.setText(getFormattedEmphasis(pos));
-			leftTextView.setText(getFormattedLeft(pos));
-			rightTextView.setText(getFormattedRight(pos));
+			wordView.setWord(tokens, pos, settingsBundle.isShowingContextEnabled());
 			progressBar.setProgress(progress);
 			hideNotification(false);
 		}
 	}
 
+	/**
+	 * Parses chunks ahead of the reader. Chunks are handed over through a lock-free queue:
+	 * the UI thread never waits for the parser, the parser waits only while the queue is full.
+	 * Count of chunks parsed ahead is adapted to WPM and parse time by PrefetchPolicy.
+	 * A chunk is handed over only when the next one is parsed and its first words are appended
+	 * to the chunk, so tokens of a chunk are never changed after the UI thread got it.
+	 */
 	private class ReaderTask implements Runnable {
-		private static final int DEQUE_SIZE_LIMIT = 3;
-		private final ArrayDeque<TextParser> parserDeque;
-		private MonitorObject object = new MonitorObject();
+		private static final int QUEUE_CAPACITY = 8;
+		private final ChunkQueue<TextParser> chunkQueue;
+		private final PrefetchPolicy prefetchPolicy;
 		private Readable currentReadable;
+		private volatile boolean finished = false;
 
-		public ReaderTask(MonitorObject object, Readable storable){
-			this.object = object;
+		public ReaderTask(Readable storable){
 			currentReadable = storable;
-			parserDeque = new ArrayDeque<TextParser>();
+			chunkQueue = new ChunkQueue<TextParser>(QUEUE_CAPACITY);
+			prefetchPolicy = new PrefetchPolicy(QUEUE_CAPACITY, settingsBundle.getWPM());
+			chunkQueue.setLimit(prefetchPolicy.getDepth());
 		}
 
 		@Override
 		public void run(){
-			while (reader == null || !reader.isCompleted()){
-				try {
-					synchronized (parserDeque){
-						if (!currentReadable.isProcessed()){
-							currentReadable.process(getActivity());
-							isFileStorable = isFileStorable(readable);
-							currentReadable.readData();
-							TextParser toAdd = TextParser.newInstance(currentReadable, settingsBundle);
-							toAdd.process();
-							parserDeque.add(toAdd);
-						}
-						while (parserDeque.size() < DEQUE_SIZE_LIMIT &&
-								parserDeque.size() > 0 &&
-								!TextUtils.isEmpty(parserDeque.getLast().getReadable().getText())){
-							parserDeque.addLast(getNextParser(parserDeque.getLast()));
-						}
-					}
-					if (reader == null)
-						startReader(removeDequeHead());
-					if (reader != null)
-						object.pauseTask();
-					else
-						break;
-				} catch (InterruptedException e) {
-					e.printStackTrace();
+			try {
+				long parseStart = SystemClock.uptimeMillis();
+				TextParser last = new TextParser(currentReadable);
+				if (!currentReadable.isProcessed()){
+					currentReadable.process(platform);
+					isFileStorable = isFileStorable(readable);
+					currentReadable.readData();
+				}
+				last.process();
+				onChunkParsed(last, parseStart);
+				TextParser next = (last.getResultCode() == TextParser.RESULT_CODE_OK) ? parseNext(last) : null;
+				startReader(last);
+				if (reader == null)
+					return;
+				while (next != null){
+					chunkQueue.awaitSpace();
+					if (chunkQueue.isClosed())
+						return;
+					TextParser following = parseNext(next);
+					//limit may be lowered while parsing, the chunk waits for space then
+					if (!chunkQueue.put(next))
+						return;
+					next = following;
 				}
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			} finally {
+				finished = true;
 			}
 		}
 
-		public TextParser removeDequeHead(){
-			synchronized (parserDeque){
-				return parserDeque.pollFirst();
-			}
+		/**
+		 * Called by the UI thread
+		 *
+		 * @return next parsed chunk, null if it isn't parsed yet
+		 */
+		public TextParser pollChunk(){
+			prefetchPolicy.onChunkReceived(SystemClock.uptimeMillis());
+			return chunkQueue.poll();
 		}
 
-		public synchronized boolean isChunkAvailable(){
-			return parserDeque.size() > 1;
+		public void setWPM(int wpm){
+			prefetchPolicy.setWPM(wpm);
+			chunkQueue.setLimit(prefetchPolicy.getDepth());
 		}
 
-		private TextParser getNextParser(TextParser current){
-			Readable currentReadable = current.getReadable();
-			TextParser result = TextParser.newInstance(currentReadable.getNext(), settingsBundle);
-			result.process();
-			if (isFileStorable) //looks strangely, may be better I think
-				((FileStorable) currentReadable).copyListPrefix(result.getReadable());
-			return result;
+		/**
+		 * @return policy with metrics of parsing and stalls
+		 */
+		public PrefetchPolicy getPrefetchPolicy(){
+			return prefetchPolicy;
 		}
-	}
 
-	/**
-	 * Class to preserve lock of task
-	 */
-	private class MonitorObject {
-
-		private boolean paused;
+		public boolean isChunkAvailable(){
+			return !chunkQueue.isEmpty();
+		}
 
-		public synchronized boolean isPaused(){
-			return paused;
+		/**
+		 * @return true if no more chunks will be parsed
+		 */
+		public boolean isFinished(){
+			return finished;
 		}
 
-		public synchronized void pauseTask() throws InterruptedException{
-			if (!isPaused()){
-				paused = true;
-				wait();
-			}
+		public void stop(){
+			chunkQueue.close();
 		}
 
-		public synchronized void resumeTask() throws InterruptedException{
-			if (isPaused()){
-				paused = false;
-				notify();
-			}
+		private void onChunkParsed(TextParser parser, long parseStart){
+			Readable parsed = parser.getReadable();
+			TokenBuffer parsedTokens = parsed.getTokens();
+			if (parsedTokens == null)
+				return;
+			long bytes = 2L * parsed.getText().length() + parsedTokens.getMemorySize();
+			prefetchPolicy.onChunkParsed(SystemClock.uptimeMillis() - parseStart, parsedTokens.size(), bytes);
+			chunkQueue.setLimit(prefetchPolicy.getDepth());
+		}
+
+		/**
+		 * Parses the chunk following the given one, which isn't handed over yet
+		 *
+		 * @return parsed chunk, null if the given one is the last
+		 */
+		private TextParser parseNext(TextParser current){
+			if (TextUtils.isEmpty(current.getReadable().getText()))
+				return null;
+			long parseStart = SystemClock.uptimeMillis();
+			TextParser next = getNextParser(current);
+			onChunkParsed(next, parseStart);
+			return (TextUtils.isEmpty(next.getReadable().getText())) ? null : next;
+		}
+
+		/**
+		 * First words of the result are appended to the current chunk
+		 */
+		private TextParser getNextParser(TextParser current){
+			Readable currentReadable = current.getReadable();
+			TextParser result = new TextParser(currentReadable.getNext());
+			result.process();
+			if (isFileStorable) //looks strangely, may be better I think
+				((FileStorable) currentReadable).copyTokensPrefix(result.getReadable());
+			return result;
 		}
 	}
 }
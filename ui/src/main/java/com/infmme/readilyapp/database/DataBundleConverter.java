@@ -0,0 +1,79 @@
+package com.infmme.readilyapp.database;
+
+import android.content.ContentValues;
+import android.content.Intent;
+import android.database.Cursor;
+import com.infmme.readilyapp.Constants;
+
+/**
+ * Android-specific conversions of DataBundle, which itself lives in core module
+ */
+public class DataBundleConverter {
+
+	public static DataBundle createElementFromIntent(Intent intent){
+		return new DataBundle(intent.getStringExtra(Constants.EXTRA_HEADER),
+							  intent.getStringExtra(Constants.EXTRA_PATH),
+							  intent.getIntExtra(Constants.EXTRA_POSITION, 0),
+							  intent.getLongExtra(Constants.EXTRA_BYTE_POSITION, 0),
+							  intent.getStringExtra(Constants.EXTRA_PERCENT));
+	}
+
+	public static Intent putInsertionDataInIntent(Intent intent, DataBundle dataBundle){
+		return intent.putExtra(Constants.EXTRA_HEADER, dataBundle.getHeader()).
+					  putExtra(Constants.EXTRA_PATH, dataBundle.getPath()).
+					  putExtra(Constants.EXTRA_POSITION, dataBundle.getPosition()).
+					  putExtra(Constants.EXTRA_BYTE_POSITION, dataBundle.getBytePosition()).
+					  putExtra(Constants.EXTRA_PERCENT, dataBundle.getPercent()).
+					  putExtra(Constants.EXTRA_DB_OPERATION, Constants.DB_OPERATION_INSERT);
+	}
+
+	public static Intent putDeletionDataInIntent(Intent intent, String path){
+		return intent.putExtra(Constants.EXTRA_PATH, path).
+					  putExtra(Constants.EXTRA_DB_OPERATION, Constants.DB_OPERATION_DELETE);
+	}
+
+	/**
+	 * @param cursor : cursor pointing to a row of LastReadDBHelper.TABLE with all columns
+	 */
+	public static DataBundle createElementFromCursor(Cursor cursor){
+		return new DataBundle(
+				cursor.getInt(LastReadDBHelper.COLUMN_ROWID),
+				cursor.getString(LastReadDBHelper.COLUMN_HEADER),
+				cursor.getString(LastReadDBHelper.COLUMN_PATH),
+				cursor.getInt(LastReadDBHelper.COLUMN_POSITION),
+				cursor.getLong(LastReadDBHelper.COLUMN_BYTE_POSITION),
+				formatPercent(cursor.getInt(LastReadDBHelper.COLUMN_PERCENT))
+		);
+	}
+
+	/**
+	 * @param percent : percent as it's shown, e.g. "42%"
+	 * @return percent as it's stored
+	 */
+	public static int parsePercent(String percent){
+		if (percent == null)
+			return 0;
+		try {
+			return Integer.parseInt(percent.replace("%", "").trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	public static String formatPercent(int percent){
+		return percent + "%";
+	}
+
+	public static ContentValues getInsertContentValues(DataBundle dataBundle){
+		ContentValues values = new ContentValues();
+		values.put(LastReadDBHelper.KEY_HEADER, dataBundle.getHeader());
+		values.put(LastReadDBHelper.KEY_PATH, dataBundle.getPath());
+		values.put(LastReadDBHelper.KEY_POSITION, dataBundle.getPosition());
+		values.put(LastReadDBHelper.KEY_PERCENT, parsePercent(dataBundle.getPercent()));
+		values.put(LastReadDBHelper.KEY_BYTE_POSITION, dataBundle.getBytePosition());
+		long now = System.currentTimeMillis();
+		values.put(LastReadDBHelper.KEY_TIME_MODIFIED, now);
+		values.put(LastReadDBHelper.KEY_TIME_VERIFIED, now); //book is being read, so it's there
+		return values;
+	}
+}
@@ -1,14 +1,25 @@
 package com.infmme.readilyapp.database;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
+import android.os.RemoteException;
 import android.text.TextUtils;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Created by infm on 6/10/14. Enjoy ;)
  */
@@ -17,22 +28,81 @@ public class LastReadContentProvider extends ContentProvider {
 	public static final String AUTHORITY = "com.infmme.readilyapp.provider";
 	public static final String PATH = LastReadDBHelper.TABLE;
 	public static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/" + PATH);
+	/**
+	 * Insertion into this uri updates the row with the same path if there is one
+	 */
+	public static final Uri UPSERT_URI = Uri.parse("content://" + AUTHORITY + "/" + PATH + "/upsert");
 	public static final int URI_LAST_READ = 1;
 	public static final int URI_LAST_READ_ID = 2;
+	public static final int URI_LAST_READ_UPSERT = 3;
+	/**
+	 * Selection of the row of a path, its changes invalidate only that path in RowCache
+	 */
+	public static final String SELECTION_PATH = LastReadDBHelper.KEY_PATH + " = ?";
+	/**
+	 * Query parameter limiting count of rows returned by query()
+	 */
+	public static final String QUERY_LIMIT = "limit";
 	static final String CONTENT_TYPE = "vnd.android.cursor.dir/vnd."
 			+ AUTHORITY + "." + PATH;
 	static final String CONTENT_ITEM_TYPE = "vnd.android.cursor.item/vnd."
 			+ AUTHORITY + "." + PATH;
 	private static final UriMatcher uriMatcher;
+	/**
+	 * Columns written by compiled upsert statements besides path
+	 */
+	private static final String[] UPSERT_COLUMNS = LastReadSchema.UPSERT_COLUMNS;
 
 	static{
 		uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
 		uriMatcher.addURI(AUTHORITY, PATH, URI_LAST_READ);
 		uriMatcher.addURI(AUTHORITY, PATH + "/#", URI_LAST_READ_ID);
+		uriMatcher.addURI(AUTHORITY, PATH + "/upsert", URI_LAST_READ_UPSERT);
 	}
 
+	private final RowCache rowCache = RowCache.getInstance();
 	private LastReadDBHelper dbHelper;
 	private SQLiteDatabase db;
+	/**
+	 * Rows changed by applyBatch() running on this thread, null if it doesn't run.
+	 * They are invalidated and notified once after the batch.
+	 */
+	private final ThreadLocal<BatchChanges> batchChanges = new ThreadLocal<BatchChanges>();
+	/**
+	 * Compiled statements of upsert(), they belong to statementsDb
+	 */
+	private SQLiteDatabase statementsDb;
+	private SQLiteStatement findStatement;
+	private SQLiteStatement insertStatement;
+	private SQLiteStatement updateStatement;
+
+	/**
+	 * @return operation deleting the row of a path
+	 */
+	public static ContentProviderOperation newDeleteByPath(String path){
+		return ContentProviderOperation.newDelete(CONTENT_URI).
+				withSelection(SELECTION_PATH, new String[]{path}).
+				build();
+	}
+
+	/**
+	 * Applies operations in one transaction, failure is only logged
+	 *
+	 * @return false if the batch failed
+	 */
+	public static boolean applyBatch(ContentResolver contentResolver, ArrayList<ContentProviderOperation> operations){
+		if (operations.isEmpty())
+			return true;
+		try {
+			contentResolver.applyBatch(AUTHORITY, operations);
+			return true;
+		} catch (RemoteException e) {
+			e.printStackTrace();
+		} catch (OperationApplicationException e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
 
 	@Override
 	public boolean onCreate(){
@@ -54,7 +124,8 @@ public class LastReadContentProvider extends ContentProvider {
 		}
 
 		db = dbHelper.getWritableDatabase();
-		Cursor cursor = db.query(LastReadDBHelper.TABLE, projection, selection, selectionArgs, null, null, sortOrder);
+		Cursor cursor = db.query(LastReadDBHelper.TABLE, projection, selection, selectionArgs, null, null, sortOrder,
+								 uri.getQueryParameter(QUERY_LIMIT));
 		cursor.setNotificationUri(getContext().getContentResolver(), uri);
 		return cursor;
 	}
@@ -72,15 +143,28 @@ public class LastReadContentProvider extends ContentProvider {
 
 	@Override
 	public Uri insert(Uri uri, ContentValues values){
-		if (uriMatcher.match(uri) != URI_LAST_READ){ throw new IllegalArgumentException("Wrong URI: " + uri); }
-
+		int match = checkInsertionUri(uri);
 		db = dbHelper.getWritableDatabase();
-		long rowId = db.insertWithOnConflict(LastReadDBHelper.TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+		long rowId = insertRow(match, values);
 		Uri resultUri = ContentUris.withAppendedId(CONTENT_URI, rowId);
-		getContext().getContentResolver().notifyChange(resultUri, null);
+		invalidatePath(values.getAsString(LastReadDBHelper.KEY_PATH));
+		notifyChange(resultUri);
 		return resultUri;
 	}
 
+	private int checkInsertionUri(Uri uri){
+		int match = uriMatcher.match(uri);
+		if (match != URI_LAST_READ && match != URI_LAST_READ_UPSERT)
+			throw new IllegalArgumentException("Wrong URI: " + uri);
+		return match;
+	}
+
+	private long insertRow(int match, ContentValues values){
+		if (match == URI_LAST_READ_UPSERT)
+			return upsert(values);
+		return db.insertWithOnConflict(LastReadDBHelper.TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+	}
+
 	@Override
 	public int delete(Uri uri, String selection, String[] selectionArgs){
 		switch (uriMatcher.match(uri)){
@@ -95,7 +179,8 @@ public class LastReadContentProvider extends ContentProvider {
 		}
 		db = dbHelper.getWritableDatabase();
 		int count = db.delete(LastReadDBHelper.TABLE, selection, selectionArgs);
-		getContext().getContentResolver().notifyChange(uri, null);
+		invalidateRows(uri, selection, selectionArgs);
+		notifyChange(uri);
 		return count;
 	}
 
@@ -114,10 +199,179 @@ public class LastReadContentProvider extends ContentProvider {
 
 		db = dbHelper.getWritableDatabase();
 		int count = db.update(LastReadDBHelper.TABLE, values, selection, selectionArgs);
-		getContext().getContentResolver().notifyChange(uri, null);
+		invalidateRows(uri, selection, selectionArgs);
+		notifyChange(uri);
 		return count;
 	}
 
+	/**
+	 * Applies operations in one transaction, observers are notified once
+	 */
+	@Override
+	public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+			throws OperationApplicationException{
+		db = dbHelper.getWritableDatabase();
+		BatchChanges changes = new BatchChanges();
+		db.beginTransaction();
+		batchChanges.set(changes);
+		try {
+			ContentProviderResult[] results = super.applyBatch(operations);
+			db.setTransactionSuccessful();
+			return results;
+		} finally {
+			batchChanges.remove();
+			db.endTransaction();
+			changes.invalidate(rowCache);
+			notifyChange(CONTENT_URI);
+		}
+	}
+
+	private void notifyChange(Uri uri){
+		if (batchChanges.get() == null)
+			getContext().getContentResolver().notifyChange(uri, null);
+	}
+
+	/**
+	 * Drops cached row of a path (all rows if it's null), it's done after the change is committed
+	 */
+	private void invalidatePath(String path){
+		BatchChanges changes = batchChanges.get();
+		if (changes != null)
+			changes.addPath(path);
+		else if (path == null)
+			rowCache.invalidateAll();
+		else
+			rowCache.invalidate(path);
+	}
+
+	/**
+	 * Drops cached rows changed by delete() or update(), all rows if the selection isn't known
+	 */
+	private void invalidateRows(Uri uri, String selection, String[] selectionArgs){
+		if (uriMatcher.match(uri) == URI_LAST_READ_ID){
+			int rowId = (int) ContentUris.parseId(uri);
+			BatchChanges changes = batchChanges.get();
+			if (changes != null)
+				changes.rowIds.add(rowId);
+			else
+				rowCache.invalidate(rowId);
+		} else if (SELECTION_PATH.equals(selection) && selectionArgs != null && selectionArgs.length == 1){
+			invalidatePath(selectionArgs[0]);
+		} else {
+			invalidatePath(null);
+		}
+	}
+
+	/**
+	 * Updates the row with the same path or inserts a new one, the row is found by the index on path.
+	 * Rows made by DataBundleConverter.getInsertContentValues() are written by compiled statements.
+	 *
+	 * @return id of the row
+	 */
+	private synchronized long upsert(ContentValues values){
+		boolean compiled = isUpsertRow(values);
+		if (compiled)
+			compileStatements();
+		String path = values.getAsString(LastReadDBHelper.KEY_PATH);
+		db.beginTransaction();
+		try {
+			long rowId = findRowId(path);
+			if (compiled){
+				SQLiteStatement statement = (rowId < 0) ? insertStatement : updateStatement;
+				statement.clearBindings();
+				for (int i = 0; i < UPSERT_COLUMNS.length; ++i)
+					bind(statement, i + 1, values.get(UPSERT_COLUMNS[i]));
+				if (rowId < 0){
+					statement.bindString(UPSERT_COLUMNS.length + 1, path);
+					rowId = statement.executeInsert();
+				} else {
+					statement.bindLong(UPSERT_COLUMNS.length + 1, rowId);
+					statement.execute();
+				}
+			} else if (rowId < 0){
+				rowId = db.insert(LastReadDBHelper.TABLE, null, values);
+			} else {
+				db.update(LastReadDBHelper.TABLE, values, LastReadDBHelper.KEY_ROWID + " = " + rowId, null);
+			}
+			db.setTransactionSuccessful();
+			return rowId;
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	private long findRowId(String path){
+		if (path == null)
+			return -1;
+		compileStatements();
+		findStatement.bindString(1, path);
+		try {
+			return findStatement.simpleQueryForLong();
+		} catch (SQLiteDoneException e) {
+			return -1;
+		}
+	}
+
+	private boolean isUpsertRow(ContentValues values){
+		if (values.size() != UPSERT_COLUMNS.length + 1 || values.getAsString(LastReadDBHelper.KEY_PATH) == null)
+			return false;
+		for (String column : UPSERT_COLUMNS)
+			if (!values.containsKey(column))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Statements are compiled once for a database
+	 */
+	private void compileStatements(){
+		if (statementsDb == db)
+			return;
+		findStatement = db.compileStatement(LastReadSchema.FIND_ROWID_BY_PATH);
+		insertStatement = db.compileStatement(LastReadSchema.UPSERT_INSERT);
+		updateStatement = db.compileStatement(LastReadSchema.UPSERT_UPDATE);
+		statementsDb = db;
+	}
+
+	private static void bind(SQLiteStatement statement, int index, Object value){
+		if (value == null)
+			statement.bindNull(index);
+		else if (value instanceof Number)
+			statement.bindLong(index, ((Number) value).longValue());
+		else
+			statement.bindString(index, value.toString());
+	}
+
+	/**
+	 * Rows changed inside a batch, they are invalidated in RowCache after the transaction ends
+	 */
+	private static class BatchChanges {
+		private final Set<String> paths = new HashSet<String>();
+		private final Set<Integer> rowIds = new HashSet<Integer>();
+		private boolean all;
+
+		/**
+		 * @param path : path of a changed row, null if changed rows aren't known
+		 */
+		private void addPath(String path){
+			if (path == null)
+				all = true;
+			else
+				paths.add(path);
+		}
+
+		private void invalidate(RowCache rowCache){
+			if (all){
+				rowCache.invalidateAll();
+				return;
+			}
+			for (String path : paths)
+				rowCache.invalidate(path);
+			for (int rowId : rowIds)
+				rowCache.invalidate(rowId);
+		}
+	}
+
 	private String updateSingleSelection(String selection, String rowId){
 		if (TextUtils.isEmpty(selection)){ selection = LastReadDBHelper.KEY_ROWID + " = " + rowId; } else {
 			selection += " AND " + LastReadDBHelper.KEY_ROWID + " = " + rowId;
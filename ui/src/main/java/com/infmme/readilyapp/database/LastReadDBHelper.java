@@ -1,8 +1,10 @@
 package com.infmme.readilyapp.database;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
 
 /**
  * Created by infm on 5/22/14. Enjoy ;)
@@ -10,50 +12,53 @@ import android.database.sqlite.SQLiteOpenHelper;
 public class LastReadDBHelper extends SQLiteOpenHelper {
 
 	public static final String NAME = "last_read";
-	public static final String TABLE = "last_read_table";
-	public static final int VERSION = 2;
-	public static final String KEY_ROWID = "_id";
-	public static final String KEY_HEADER = "header";
-	public static final String KEY_PATH = "path";
-	public static final String KEY_POSITION = "position";
-	public static final String KEY_PERCENT = "percent_left";
-	public static final String KEY_TIME_MODIFIED = "time_modified";
-	public static final String KEY_LINK = "link";
-	public static final String KEY_BYTE_POSITION = "byte_position";
+	public static final String TABLE = LastReadSchema.TABLE;
+	public static final int VERSION = LastReadSchema.VERSION;
+	public static final String KEY_ROWID = LastReadSchema.KEY_ROWID;
+	public static final String KEY_HEADER = LastReadSchema.KEY_HEADER;
+	public static final String KEY_PATH = LastReadSchema.KEY_PATH;
+	public static final String KEY_POSITION = LastReadSchema.KEY_POSITION;
+	public static final String KEY_PERCENT = LastReadSchema.KEY_PERCENT;
+	public static final String KEY_TIME_MODIFIED = LastReadSchema.KEY_TIME_MODIFIED;
+	public static final String KEY_BYTE_POSITION = LastReadSchema.KEY_BYTE_POSITION;
+	public static final String KEY_TIME_VERIFIED = LastReadSchema.KEY_TIME_VERIFIED;
 	public static final int COLUMN_ROWID = 0;
 	public static final int COLUMN_HEADER = 1;
 	public static final int COLUMN_PATH = 2;
 	public static final int COLUMN_POSITION = 5;
 	public static final int COLUMN_PERCENT = 4;
-	public static final int COLUMN_BYTE_POSITION = 7;
-	static final String CREATE =
-			"CREATE TABLE " + TABLE + " (" +
-					KEY_ROWID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-					KEY_HEADER + " TEXT NOT NULL, " +
-					KEY_PATH + " TEXT NOT NULL, " +
-					KEY_TIME_MODIFIED + " INTEGER, " +
-					KEY_PERCENT + " INTEGER, " +
-					KEY_POSITION + " INTEGER, " +
-					KEY_LINK + " TEXT, " +
-					KEY_BYTE_POSITION + " INTEGER);";
+	public static final int COLUMN_BYTE_POSITION = 6;
+	public static final int COLUMN_TIME_VERIFIED = 7;
+	public static final String ORDER_RECENT_FIRST = LastReadSchema.ORDER_RECENT_FIRST;
 
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
 	public LastReadDBHelper(Context context){
 		super(context, NAME, null, VERSION);
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+			setWriteAheadLoggingEnabled(true);
+	}
+
+	/**
+	 * Write-ahead logging lets the list read while positions are written, before API 16 it's enabled here
+	 */
+	@Override
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	public void onOpen(SQLiteDatabase db){
+		super.onOpen(db);
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB &&
+				Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN && !db.isReadOnly())
+			db.enableWriteAheadLogging();
 	}
 
 	@Override
 	public void onCreate(SQLiteDatabase db){
-		db.execSQL(CREATE);
+		for (String sql : LastReadSchema.getCreateStatements())
+			db.execSQL(sql);
 	}
 
 	@Override
 	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion){
-		int upgradeTo = oldVersion;
-		while (upgradeTo++ <= newVersion) {
-			switch (upgradeTo) {
-				case 2:
-					db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN " + KEY_BYTE_POSITION + " INTEGER");
-			}
-		}
+		for (String sql : LastReadSchema.getUpgradeStatements(oldVersion, newVersion))
+			db.execSQL(sql);
 	}
 }
@@ -0,0 +1,86 @@
+package com.infmme.readilyapp.database;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.text.TextUtils;
+import com.infmme.readilyapp.platform.CoalescingPositionStore;
+import com.infmme.readilyapp.service.StorageCheckerService;
+import com.infmme.readilyapp.service.StorageWatcher;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * PositionStore on top of LastReadContentProvider. It's one per process, so changes of all readers are coalesced,
+ * every batch is written by LastReadContentProvider.applyBatch(): saved rows are upserted and deleted ones
+ * are deleted in one transaction with one notification.
+ */
+public class ProviderPositionStore extends CoalescingPositionStore {
+
+	private static ProviderPositionStore instance;
+
+	private final Context context;
+
+	private ProviderPositionStore(Context context){
+		this.context = context;
+	}
+
+	public static synchronized ProviderPositionStore getInstance(Context context){
+		if (instance == null)
+			instance = new ProviderPositionStore(context.getApplicationContext());
+		return instance;
+	}
+
+	/**
+	 * @return row of the path, it's taken from RowCache or found by the index on path; null if there is no such row
+	 */
+	public static DataBundle getRowData(final ContentResolver contentResolver, String path){
+		if (TextUtils.isEmpty(path))
+			return null;
+		return RowCache.getInstance().get(path, new RowCache.Loader() {
+			@Override
+			public DataBundle load(String path){
+				return queryRowData(contentResolver, path);
+			}
+		});
+	}
+
+	private static DataBundle queryRowData(ContentResolver contentResolver, String path){
+		Cursor cursor = contentResolver.query(LastReadContentProvider.CONTENT_URI, null,
+											  LastReadContentProvider.SELECTION_PATH, new String[]{path}, null);
+		if (cursor == null)
+			return null;
+		DataBundle rowData = null;
+		if (cursor.moveToFirst())
+			rowData = DataBundleConverter.createElementFromCursor(cursor);
+		cursor.close();
+		return rowData;
+	}
+
+	@Override
+	protected DataBundle findStored(String path){
+		return getRowData(context.getContentResolver(), path);
+	}
+
+	@Override
+	protected void write(Map<String, DataBundle> changes){
+		ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>(changes.size());
+		boolean deletes = false;
+		StorageWatcher watcher = StorageWatcher.getInstance(context);
+		for (Map.Entry<String, DataBundle> change : changes.entrySet()){
+			if (change.getValue() == null){
+				operations.add(LastReadContentProvider.newDeleteByPath(change.getKey()));
+				deletes = true;
+			} else {
+				operations.add(ContentProviderOperation.newInsert(LastReadContentProvider.UPSERT_URI).
+						withValues(DataBundleConverter.getInsertContentValues(change.getValue())).
+						build());
+				watcher.watch(change.getKey());
+			}
+		}
+		if (LastReadContentProvider.applyBatch(context.getContentResolver(), operations) && deletes)
+			StorageCheckerService.onRowsDeleted(context);
+	}
+}
@@ -0,0 +1,63 @@
+package com.infmme.readilyapp.platform;
+
+import android.content.Context;
+import android.net.Uri;
+import android.preference.PreferenceManager;
+import android.text.TextUtils;
+import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.database.ProviderPositionStore;
+import com.ipaulpro.afilechooser.utils.FileUtils;
+
+import java.io.File;
+
+/**
+ * Platform implemented on top of Android Context
+ */
+public class AndroidPlatform implements Platform {
+
+	private final Context context;
+	private final PositionStore positionStore;
+
+	public AndroidPlatform(Context context){
+		this.context = context;
+		positionStore = ProviderPositionStore.getInstance(context);
+	}
+
+	/**
+	 * For readables which can't work without Android itself (clipboard, network)
+	 */
+	public static Context getContext(Platform platform){
+		return ((AndroidPlatform) platform).getContext();
+	}
+
+	public Context getContext(){
+		return context;
+	}
+
+	@Override
+	public String resolvePath(String path){
+		String candidate = FileUtils.getPath(context, Uri.parse(path));
+		if (TextUtils.isEmpty(candidate)){ return path; }
+		return candidate;
+	}
+
+	@Override
+	public File getFilesDir(){
+		return context.getFilesDir();
+	}
+
+	@Override
+	public boolean isCacheEnabled(){
+		return PreferenceManager.getDefaultSharedPreferences(context).getBoolean(Constants.Preferences.STORAGE, true);
+	}
+
+	@Override
+	public File getCacheDir(){
+		return context.getCacheDir();
+	}
+
+	@Override
+	public PositionStore getPositionStore(){
+		return positionStore;
+	}
+}
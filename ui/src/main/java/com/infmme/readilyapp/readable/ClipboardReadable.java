@@ -5,6 +5,8 @@ import android.content.Context;
 import android.os.Build;
 import android.os.Looper;
 import android.text.ClipboardManager;
+import com.infmme.readilyapp.platform.AndroidPlatform;
+import com.infmme.readilyapp.platform.Platform;
 
 /**
  * Created by infm on 6/12/14. Enjoy ;)
@@ -35,7 +37,8 @@ public class ClipboardReadable extends Readable {
 	}
 	public android.content.ClipboardManager getClipboardNew() { return clipboardNew; }
 
-	public void process(final Context context){
+	public void process(Platform platform){
+		Context context = AndroidPlatform.getContext(platform);
 		Looper.prepare(); //TODO: review it CAREFULLY
 		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB){
 			clipboardNew = (android.content.ClipboardManager) context.getSystemService(Context.CLIPBOARD_SERVICE);
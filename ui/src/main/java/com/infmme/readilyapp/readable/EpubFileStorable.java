@@ -1,8 +1,8 @@
 package com.infmme.readilyapp.readable;
 
-import android.content.Context;
 import android.text.TextUtils;
 import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.platform.Platform;
 import nl.siegmann.epublib.domain.Book;
 import nl.siegmann.epublib.domain.Resource;
 import nl.siegmann.epublib.epub.EpubReader;
@@ -51,9 +51,9 @@ public class EpubFileStorable extends FileStorable {
 		return index;
 	}
 
-	public void process(Context context){
+	public void process(Platform platform){
 		try {
-			path = FileStorable.takePath(context, path);
+			path = platform.resolvePath(path);
 			if (path == null){
 				return;
 			}
@@ -64,12 +64,10 @@ public class EpubFileStorable extends FileStorable {
 			book = (new EpubReader()).readEpubLazy(path, encoding);
 			resources = book.getContents();
 
-			createRowData(context);
-			if (bytePosition > 0){
-				long passed = 0;
-				while (index < resources.size() && passed < bytePosition)
-					passed += resources.get(index++).getSize();
-			}
+			createRowData(platform);
+			openChunkCache(platform, file);
+			if (bytePosition > 0)
+				seek(bytePosition);
 			processed = true;
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -77,7 +75,7 @@ public class EpubFileStorable extends FileStorable {
 	}
 
 	@Override
-	public void readData(){
+	protected void readChunk(){
 		int cycleCount = 0;
 		while (cycleCount < 5){
 			setText("");
@@ -98,6 +96,18 @@ public class EpubFileStorable extends FileStorable {
 		}
 	}
 
+	/**
+	 * Byte position of epub is a sum of sizes of passed resources
+	 */
+	@Override
+	protected void seek(long bytePosition){
+		resources = book.getContents();
+		index = 0;
+		long passed = 0;
+		while (index < resources.size() && passed < bytePosition)
+			passed += resources.get(index++).getSize();
+	}
+
 	@Override
 	public Readable getNext(){
 		return prepareNext(new EpubFileStorable(this));
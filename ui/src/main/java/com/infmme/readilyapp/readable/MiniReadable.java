@@ -4,7 +4,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.database.Cursor;
 import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.database.DataBundleConverter;
 import com.infmme.readilyapp.database.LastReadDBHelper;
+import com.infmme.readilyapp.platform.Platform;
 import com.infmme.readilyapp.service.LastReadService;
 
 /**
@@ -25,7 +27,7 @@ public class MiniReadable extends Readable {
 		return new MiniReadable(
 				cursor.getString(LastReadDBHelper.COLUMN_PATH),
 				cursor.getString(LastReadDBHelper.COLUMN_HEADER),
-				cursor.getString(LastReadDBHelper.COLUMN_PERCENT),
+				DataBundleConverter.formatPercent(cursor.getInt(LastReadDBHelper.COLUMN_PERCENT)),
 				cursor.getInt(LastReadDBHelper.COLUMN_POSITION)
 		);
 	}
@@ -44,7 +46,7 @@ public class MiniReadable extends Readable {
 	}
 
 	@Override
-	public void process(Context context){}
+	public void process(Platform platform){}
 
 	@Override
 	public void readData(){}
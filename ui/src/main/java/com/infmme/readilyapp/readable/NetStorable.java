@@ -4,6 +4,8 @@ import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.text.TextUtils;
+import com.infmme.readilyapp.platform.AndroidPlatform;
+import com.infmme.readilyapp.platform.Platform;
 import de.jetwick.snacktory.HtmlFetcher;
 import de.jetwick.snacktory.JResult;
 
@@ -29,9 +31,9 @@ public class NetStorable extends Storable {
 	public String getLink(){ return link; }
 
 	@Override
-	public void process(Context context){
+	public void process(Platform platform){
 		if (!TextUtils.isEmpty(link)){
-			if (isNetworkAvailable(context)){
+			if (isNetworkAvailable(AndroidPlatform.getContext(platform))){
 				text = new StringBuilder(parseArticle(link));
 			} else {
 				processFailed = true;
@@ -41,12 +43,12 @@ public class NetStorable extends Storable {
 			processFailed = true;
 			return;
 		}
-		path = context.getFilesDir() + "/" + cleanFileName(title) + SAVED_FILE_EXT;
-		rowData = takeRowData(context);
+		path = platform.getFilesDir() + "/" + cleanFileName(title) + SAVED_FILE_EXT;
+		rowData = takeRowData(platform);
 		if (rowData != null){
 			position = rowData.getPosition();
 		} else {
-			createInternalStorageFile(context, path, text.toString());
+			createInternalStorageFile(platform, path, text.toString());
 		}
 		processed = true;
 	}
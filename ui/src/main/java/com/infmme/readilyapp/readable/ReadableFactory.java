@@ -0,0 +1,92 @@
+package com.infmme.readilyapp.readable;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.preference.PreferenceManager;
+import android.text.TextUtils;
+import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.R;
+import com.infmme.readilyapp.essential.TextParser;
+import com.infmme.readilyapp.platform.AndroidPlatform;
+
+/**
+ * Creates readables of all types, including ones which can't live in core module
+ */
+public class ReadableFactory {
+
+	public static Readable createReadable(Context context, Bundle bundle){
+		Readable readable = null;
+		if (bundle != null){
+			String extraText = bundle.getString(Intent.EXTRA_TEXT);
+			if (extraText == null)
+				extraText = context.getResources().getString(R.string.sample_text);
+			readable = createReadable(
+					bundle.getInt(Constants.EXTRA_TYPE, -1),
+					extraText,
+					bundle.getString(Constants.EXTRA_PATH),
+					PreferenceManager.getDefaultSharedPreferences(context).getBoolean(Constants.Preferences.STORAGE,
+																					  true));
+			if (readable instanceof FileStorable)
+				readable = CompiledFileStorable.wrap(new AndroidPlatform(context.getApplicationContext()),
+													 (FileStorable) readable);
+			readable.setPosition(Math.max(bundle.getInt(Constants.EXTRA_POSITION), 0));
+			readable.setHeader(bundle.getString(Constants.EXTRA_HEADER));
+		}
+		return readable;
+	}
+
+	public static Readable createReadable(Integer intentType, String intentText, String intentPath,
+										  Boolean cacheEnabled){
+		Readable readable;
+		switch (intentType){
+			case Readable.TYPE_RAW:
+				readable = new RawReadable(intentText, false); //currently it's hold only for test
+				break;
+			case Readable.TYPE_CLIPBOARD:
+				readable = new ClipboardReadable();
+				break;
+			case Readable.TYPE_FILE:
+				readable = createFileStorable(intentPath);
+				break;
+			case Readable.TYPE_TXT:
+				readable = new TxtFileStorable(intentPath);
+				break;
+			case Readable.TYPE_EPUB:
+				readable = new EpubFileStorable(intentPath);
+				break;
+			case Readable.TYPE_FB2:
+				readable = new FB2FileStorable(intentPath);
+				break;
+			default:
+				String link;
+				if (!TextUtils.isEmpty(intentText) &&
+						intentText.length() < Constants.NON_LINK_LENGTH &&
+						!TextUtils.isEmpty(link = TextParser.findLink(TextParser.compilePattern(), intentText))){
+					readable = new NetStorable(link);
+				} else {
+					readable = new RawReadable(intentText, cacheEnabled); //neutral value
+				}
+		}
+		return readable;
+	}
+
+	public static FileStorable createFileStorable(String intentPath){
+		FileStorable fileStorable;
+		switch (FileStorable.getIntentType(intentPath)){
+			case Readable.TYPE_TXT:
+				fileStorable = new TxtFileStorable(intentPath);
+				break;
+			case Readable.TYPE_EPUB:
+				fileStorable = new EpubFileStorable(intentPath);
+				break;
+			case Readable.TYPE_FB2:
+				fileStorable = new FB2FileStorable(intentPath);
+				break;
+			default:
+				fileStorable = null;
+				break;
+		}
+		return fileStorable;
+	}
+}
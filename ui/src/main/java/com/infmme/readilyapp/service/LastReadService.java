@@ -1,15 +1,18 @@
 package com.infmme.readilyapp.service;
 
 import android.app.IntentService;
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
-import android.content.ContentUris;
 import android.content.Context;
 import android.content.Intent;
 import com.infmme.readilyapp.Constants;
 import com.infmme.readilyapp.database.DataBundle;
 import com.infmme.readilyapp.database.LastReadContentProvider;
-import com.infmme.readilyapp.database.LastReadDBHelper;
-import com.infmme.readilyapp.readable.Storable;
+import com.infmme.readilyapp.database.DataBundleConverter;
+import com.infmme.readilyapp.database.ProviderPositionStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 
 public class LastReadService extends IntentService {
 
@@ -44,11 +47,9 @@ public class LastReadService extends IntentService {
 		ContentResolver contentResolver = getContentResolver();
 		switch (intent.getIntExtra(Constants.EXTRA_DB_OPERATION, -1)){
 			case Constants.DB_OPERATION_INSERT:
-				DataBundle dataBundle = DataBundle.createElementFromIntent(intent);
-				insertDataWithoutConflict(contentResolver, dataBundle,
-										  Storable.getRowData(contentResolver.query(LastReadContentProvider.CONTENT_URI,
-																					null, null, null, null),
-															  dataBundle.getPath()));
+				DataBundle dataBundle = DataBundleConverter.createElementFromIntent(intent);
+				contentResolver.insert(LastReadContentProvider.UPSERT_URI,
+									   DataBundleConverter.getInsertContentValues(dataBundle));
 				break;
 			case Constants.DB_OPERATION_DELETE:
 				deleteData(contentResolver, getPaths(intent));
@@ -58,17 +59,6 @@ public class LastReadService extends IntentService {
 		}
 	}
 
-	private void insertDataWithoutConflict(ContentResolver contentResolver, DataBundle dataBundle, DataBundle rowData){
-		if (rowData == null){
-			contentResolver.insert(LastReadContentProvider.CONTENT_URI, DataBundle.getInsertContentValues(dataBundle));
-		} else {
-			contentResolver.update(ContentUris.withAppendedId(
-					LastReadContentProvider.CONTENT_URI, rowData.getRowId()
-															 ), DataBundle.getUpdateContentValues(dataBundle), null,
-								   null);
-		}
-	}
-
 	private String[] getPaths(Intent intent){
 		String[] paths = intent.getStringArrayExtra(Constants.EXTRA_PATH_ARRAY);
 		if (paths == null)
@@ -76,8 +66,15 @@ public class LastReadService extends IntentService {
 		return paths;
 	}
 
+	/**
+	 * All rows are deleted in one transaction, pending saves of them are cancelled, so they aren't recreated
+	 */
 	private void deleteData(ContentResolver contentResolver, String[] paths){
-		contentResolver.delete(LastReadContentProvider.CONTENT_URI,
-							   LastReadDBHelper.KEY_PATH + "=?", paths);
+		ProviderPositionStore.getInstance(this).cancel(Arrays.asList(paths));
+		ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>(paths.length);
+		for (String path : paths)
+			operations.add(LastReadContentProvider.newDeleteByPath(path));
+		if (LastReadContentProvider.applyBatch(contentResolver, operations))
+			StorageCheckerService.onRowsDeleted(this);
 	}
 }
@@ -0,0 +1,17 @@
+package com.infmme.readilyapp.service;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Starts PreprocessService when the charger is connected
+ */
+public class PowerConnectedReceiver extends BroadcastReceiver {
+
+	@Override
+	public void onReceive(Context context, Intent intent){
+		if (Intent.ACTION_POWER_CONNECTED.equals(intent.getAction()))
+			PreprocessService.start(context);
+	}
+}
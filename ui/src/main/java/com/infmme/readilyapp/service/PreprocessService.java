@@ -0,0 +1,184 @@
+package com.infmme.readilyapp.service;
+
+import android.app.IntentService;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.Cursor;
+import android.os.BatteryManager;
+import com.infmme.readilyapp.Constants;
+import com.infmme.readilyapp.database.LastReadContentProvider;
+import com.infmme.readilyapp.database.LastReadDBHelper;
+import com.infmme.readilyapp.platform.AndroidPlatform;
+import com.infmme.readilyapp.platform.Platform;
+import com.infmme.readilyapp.readable.CompiledBook;
+import com.infmme.readilyapp.readable.FileStorable;
+import com.infmme.readilyapp.readable.ReadableFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles books of last_read table (and given ones) into CompiledBook while the device is charging,
+ * so opening them doesn't wait for parsing. Books are compiled by a small pool of low priority threads,
+ * nothing new is started after the charger is disconnected.
+ * The pool lives as long as the process and intents only queue books, so a newly picked book is compiled
+ * before the rest of the library, even while the library is being compiled.
+ */
+public class PreprocessService extends IntentService {
+
+	private static final int MAX_WORKER_COUNT = 2;
+	private static final long KEEP_ALIVE = 30 * 1000L;
+
+	private static ThreadPoolExecutor executor;
+	/**
+	 * Path of a queued book to its task, guarded by PreprocessService.class
+	 */
+	private static final Map<String, CompileTask> queued = new HashMap<String, CompileTask>();
+	private static final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Creates an IntentService.  Invoked by your subclass's constructor.
+	 *
+	 * @param name Used to name the worker thread, important only for debugging.
+	 */
+	public PreprocessService(String name){
+		super(name);
+	}
+
+	public PreprocessService(){
+		super("PreprocessService");
+	}
+
+	/**
+	 * Compiles all books of last_read table
+	 */
+	public static void start(Context context){
+		context.startService(new Intent(context, PreprocessService.class));
+	}
+
+	/**
+	 * Compiles a book before all books of last_read table
+	 *
+	 * @param path : path of a newly picked book
+	 */
+	public static void start(Context context, String path){
+		context.startService(new Intent(context, PreprocessService.class).putExtra(Constants.EXTRA_PATH, path));
+	}
+
+	public static boolean isCharging(Context context){
+		Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+		return battery != null && battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+	}
+
+	/**
+	 * Queues books and returns, the picked one goes before everything queued
+	 */
+	@Override
+	protected void onHandleIntent(Intent intent){
+		if (!isCharging(this))
+			return;
+		Platform platform = new AndroidPlatform(getApplicationContext());
+		String picked = intent.getStringExtra(Constants.EXTRA_PATH);
+		if (picked != null)
+			queue(platform, picked, true);
+		for (String path : getBasePaths())
+			queue(platform, path, false);
+	}
+
+	private void queue(Platform platform, String path, boolean picked){
+		File book = new File(path);
+		if (!book.isFile() || !FileStorable.isExtensionValid(FileStorable.getExtension(path)) ||
+				CompiledBook.isCompiled(platform.getCacheDir(), book))
+			return;
+		synchronized (PreprocessService.class){
+			CompileTask task = queued.get(path);
+			if (task != null){
+				if (!picked || task.picked)
+					return;
+				getExecutor().remove(task); //moved to the front
+			}
+			task = new CompileTask(getApplicationContext(), platform, path, picked);
+			queued.put(path, task);
+			getExecutor().execute(task);
+		}
+	}
+
+	/**
+	 * Workers end after KEEP_ALIVE without books, the pool itself is kept
+	 */
+	private static synchronized ThreadPoolExecutor getExecutor(){
+		if (executor == null){
+			int workerCount = Math.max(1, Math.min(MAX_WORKER_COUNT, Runtime.getRuntime().availableProcessors() - 1));
+			executor = new ThreadPoolExecutor(workerCount, workerCount, KEEP_ALIVE, TimeUnit.MILLISECONDS,
+											  new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable){
+					Thread thread = new Thread(runnable, "PreprocessService worker");
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	/**
+	 * Picked books go first, the latest picked first; other books keep the order they were queued in
+	 */
+	private static class CompileTask implements Runnable, Comparable<CompileTask> {
+
+		private final Context context;
+		private final Platform platform;
+		private final String path;
+		private final boolean picked;
+		private final long order;
+
+		public CompileTask(Context context, Platform platform, String path, boolean picked){
+			this.context = context;
+			this.platform = platform;
+			this.path = path;
+			this.picked = picked;
+			order = picked ? -sequence.incrementAndGet() : sequence.incrementAndGet();
+		}
+
+		@Override
+		public void run(){
+			synchronized (PreprocessService.class){
+				if (queued.get(path) == this)
+					queued.remove(path);
+			}
+			if (isCharging(context))
+				CompiledBook.compile(platform, ReadableFactory.createFileStorable(path));
+		}
+
+		@Override
+		public int compareTo(CompileTask another){
+			if (picked != another.picked)
+				return picked ? -1 : 1;
+			return (order < another.order) ? -1 : ((order == another.order) ? 0 : 1);
+		}
+	}
+
+	private List<String> getBasePaths(){
+		List<String> result = new ArrayList<String>();
+		Cursor cursor = getContentResolver().query(LastReadContentProvider.CONTENT_URI,
+												   new String[]{LastReadDBHelper.KEY_PATH},
+												   null, null, LastReadDBHelper.ORDER_RECENT_FIRST);
+		if (cursor == null)
+			return result;
+		while (cursor.moveToNext())
+			result.add(cursor.getString(0));
+		cursor.close();
+		return result;
+	}
+}
@@ -1,22 +1,39 @@
 package com.infmme.readilyapp.service;
 
 import android.app.IntentService;
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
 import android.content.ContentUris;
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.database.Cursor;
+import android.net.Uri;
 import com.infmme.readilyapp.database.LastReadContentProvider;
 import com.infmme.readilyapp.database.LastReadDBHelper;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Created by infm on 7/1/14. Enjoy ;)
  */
 public class StorageCheckerService extends IntentService {
 
+	/**
+	 * Row is checked again when it wasn't verified for this time, in ms
+	 */
+	public static final long VERIFY_INTERVAL = 24 * 60 * 60 * 1000L;
+	public static final int BATCH_SIZE = 50;
+	/**
+	 * Max count of batches checked by one run
+	 */
+	public static final int MAX_BATCHES = 20;
+	private static final String PREFERENCES_NAME = "storage_checker";
+	private static final String KEY_FILES_DIR_MODIFIED = "files_dir_modified";
+
 	/**
 	 * Creates an IntentService.  Invoked by your subclass's constructor.
 	 *
@@ -30,33 +47,100 @@ public class StorageCheckerService extends IntentService {
 		super("StorageCheckerService");
 	}
 
+	/**
+	 * Deleted rows may leave files of texts without rows, which isn't seen by modification time of the directory,
+	 * so the next run processes the directory anyway. Code deleting rows calls it once per batch.
+	 */
+	public static void onRowsDeleted(Context context){
+		context.getSharedPreferences(PREFERENCES_NAME, MODE_PRIVATE).edit().remove(KEY_FILES_DIR_MODIFIED).apply();
+	}
+
+	/**
+	 * Removes rows of books which aren't in storage anymore and files of texts which have no rows.
+	 * Books deleted while the app runs are handled by StorageWatcher at once, so the check is incremental.
+	 */
 	@Override
 	protected void onHandleIntent(Intent intent){
 		ContentResolver contentResolver = getContentResolver();
-		processFolder(getBaseData(contentResolver), contentResolver);
+		Set<String> paths = getPaths(contentResolver);
+		StorageWatcher watcher = StorageWatcher.getInstance(this);
+		for (String path : paths)
+			watcher.watch(path);
+		processFolder(paths);
+		verifyStaleRows(contentResolver);
 	}
 
-	private Map<String, Integer> getBaseData(ContentResolver contentResolver){
-		Map<String, Integer> result = new HashMap<String, Integer>();
+	/**
+	 * Only paths are read, no file is checked
+	 */
+	private Set<String> getPaths(ContentResolver contentResolver){
+		Set<String> result = new HashSet<String>();
 		Cursor cursor = contentResolver.query(LastReadContentProvider.CONTENT_URI,
-											  new String[]{LastReadDBHelper.KEY_ROWID, LastReadDBHelper.KEY_PATH},
-											  null, null, null);
+											  new String[]{LastReadDBHelper.KEY_PATH}, null, null, null);
+		if (cursor == null)
+			return result;
 		while (cursor.moveToNext())
-			result.put(cursor.getString(1), cursor.getInt(0));
+			result.add(cursor.getString(0));
 		cursor.close();
 		return result;
 	}
 
-	private void processFolder(Map<String, Integer> baseData, ContentResolver contentResolver){
-		for (File file : getFilesDir().listFiles())
-			if (file.exists() && !baseData.containsKey(file.getAbsolutePath()))
-				file.delete();
-		for (Map.Entry<String, Integer> entry : baseData.entrySet()){
-			if (!(new File(entry.getKey())).exists()){
-				contentResolver.delete(
-						ContentUris.withAppendedId(LastReadContentProvider.CONTENT_URI, entry.getValue()),
-						null, null);
+	/**
+	 * Deletes files of texts which have no rows, if any file was added or removed or any row was deleted
+	 * since the last run
+	 */
+	private void processFolder(Set<String> paths){
+		File filesDir = getFilesDir();
+		SharedPreferences preferences = getSharedPreferences(PREFERENCES_NAME, MODE_PRIVATE);
+		if (filesDir.lastModified() == preferences.getLong(KEY_FILES_DIR_MODIFIED, -1))
+			return;
+		File[] files = filesDir.listFiles();
+		if (files != null)
+			for (File file : files)
+				if (file.isFile() && !paths.contains(file.getAbsolutePath()))
+					file.delete();
+		preferences.edit().putLong(KEY_FILES_DIR_MODIFIED, filesDir.lastModified()).commit();
+	}
+
+	/**
+	 * Rows which weren't verified for VERIFY_INTERVAL are checked, the oldest first; every batch is
+	 * written in one transaction: rows of missing books are deleted, others are marked as verified.
+	 * Check stops after a failed batch, otherwise the same rows would be read again.
+	 */
+	private void verifyStaleRows(ContentResolver contentResolver){
+		long now = System.currentTimeMillis();
+		Uri uri = LastReadContentProvider.CONTENT_URI.buildUpon().
+				appendQueryParameter(LastReadContentProvider.QUERY_LIMIT, Integer.toString(BATCH_SIZE)).
+				build();
+		String selection = LastReadDBHelper.KEY_TIME_VERIFIED + " < ?";
+		String[] selectionArgs = {Long.toString(now - VERIFY_INTERVAL)};
+		boolean deleted = false;
+		for (int batch = 0; batch < MAX_BATCHES; ++batch){
+			Cursor cursor = contentResolver.query(uri,
+												  new String[]{LastReadDBHelper.KEY_ROWID, LastReadDBHelper.KEY_PATH},
+												  selection, selectionArgs, LastReadDBHelper.KEY_TIME_VERIFIED);
+			if (cursor == null)
+				break;
+			ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>();
+			boolean deletes = false;
+			while (cursor.moveToNext()){
+				Uri rowUri = ContentUris.withAppendedId(LastReadContentProvider.CONTENT_URI, cursor.getLong(0));
+				if (new File(cursor.getString(1)).exists())
+					operations.add(ContentProviderOperation.newUpdate(rowUri).
+							withValue(LastReadDBHelper.KEY_TIME_VERIFIED, now).
+							build());
+				else {
+					operations.add(ContentProviderOperation.newDelete(rowUri).build());
+					deletes = true;
+				}
 			}
+			cursor.close();
+			boolean applied = LastReadContentProvider.applyBatch(contentResolver, operations);
+			deleted |= applied && deletes;
+			if (!applied || operations.size() < BATCH_SIZE)
+				break;
 		}
+		if (deleted)
+			onRowsDeleted(this);
 	}
 }
@@ -0,0 +1,100 @@
+package com.infmme.readilyapp.service;
+
+import android.content.Context;
+import android.os.FileObserver;
+import com.infmme.readilyapp.database.ProviderPositionStore;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Watches directories of last read books and deletes rows of books as soon as they are deleted or moved away.
+ * It's one per process, rows are deleted through ProviderPositionStore, so deletions are batched.
+ * Events aren't delivered while the process is dead, StorageCheckerService finds such books later.
+ */
+public class StorageWatcher {
+
+	private static final int MASK = FileObserver.DELETE | FileObserver.MOVED_FROM |
+			FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+	private static StorageWatcher instance;
+
+	private final Context context;
+	/**
+	 * Path of a directory to its observer
+	 */
+	private final Map<String, DirectoryObserver> observers = new HashMap<String, DirectoryObserver>();
+
+	private StorageWatcher(Context context){
+		this.context = context;
+	}
+
+	public static synchronized StorageWatcher getInstance(Context context){
+		if (instance == null)
+			instance = new StorageWatcher(context.getApplicationContext());
+		return instance;
+	}
+
+	/**
+	 * @param path : path of a book as it's stored in the database
+	 */
+	public synchronized void watch(String path){
+		File parent = new File(path).getParentFile();
+		if (parent == null)
+			return;
+		String directory = parent.getPath();
+		DirectoryObserver observer = observers.get(directory);
+		if (observer == null){
+			observer = new DirectoryObserver(directory);
+			observers.put(directory, observer);
+			observer.startWatching();
+		}
+		observer.paths.put(new File(path).getName(), path);
+	}
+
+	/**
+	 * Deletes rows of watched books of the directory which aren't there anymore
+	 *
+	 * @param name : name of a file, null to check all books of the directory
+	 */
+	private synchronized void onDeleted(DirectoryObserver observer, String name){
+		ProviderPositionStore store = ProviderPositionStore.getInstance(context);
+		for (String fileName : observer.paths.keySet().toArray(new String[observer.paths.size()])){
+			if (name != null && !name.equals(fileName))
+				continue;
+			String path = observer.paths.get(fileName);
+			if (!new File(path).exists()){
+				observer.paths.remove(fileName);
+				store.delete(path);
+			}
+		}
+		if (observer.paths.isEmpty() && observers.get(observer.directory) == observer){
+			observer.stopWatching();
+			observers.remove(observer.directory);
+		}
+	}
+
+	private class DirectoryObserver extends FileObserver {
+
+		private final String directory;
+		/**
+		 * Name of a watched file to its path in the database
+		 */
+		private final Map<String, String> paths = new HashMap<String, String>();
+
+		public DirectoryObserver(String directory){
+			super(directory, MASK);
+			this.directory = directory;
+		}
+
+		@Override
+		public void onEvent(int event, String name){
+			event &= FileObserver.ALL_EVENTS;
+			if ((event & (FileObserver.DELETE_SELF | FileObserver.MOVE_SELF)) != 0)
+				onDeleted(this, null);
+			else if (name != null && (event & (FileObserver.DELETE | FileObserver.MOVED_FROM)) != 0)
+				onDeleted(this, name);
+		}
+	}
+}
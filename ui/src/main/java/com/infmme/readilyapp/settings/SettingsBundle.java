@@ -3,9 +3,6 @@ package com.infmme.readilyapp.settings;
 import android.content.SharedPreferences;
 import com.infmme.readilyapp.Constants;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Created by infm on 6/26/14. Enjoy ;)
  */
@@ -15,7 +12,7 @@ public class SettingsBundle {
 	private Integer WPM;
 	private Integer fontSize;
 	private boolean punctuationSpeedDiffers;
-	private List<Integer> delayCoefficients;
+	private int[] delayCoefficients;
 	private boolean showingContextEnabled;
 	private boolean swipesEnabled;
 	private boolean storingComplete;
@@ -41,7 +38,7 @@ public class SettingsBundle {
 		return storingComplete;
 	}
 
-	public List<Integer> getDelayCoefficients(){
+	public int[] getDelayCoefficients(){
 		return delayCoefficients;
 	}
 
@@ -93,14 +90,14 @@ public class SettingsBundle {
 	 * default value is 10
 	 * upd 07/03/14 : currently not optional
 	 */
-	private ArrayList<Integer> buildDelayListCoefficients(){
-		ArrayList<Integer> delayCoeffs = new ArrayList<Integer>();
+	private int[] buildDelayListCoefficients(){
+		int[] delayCoeffs = new int[6];
 		if (punctuationSpeedDiffers)
 			for (int i = 0; i < 6; ++i)
-				delayCoeffs.add(Integer.parseInt(Constants.Preferences.STR_PUNCTUATION_DEFAULTS[i]));
+				delayCoeffs[i] = Integer.parseInt(Constants.Preferences.STR_PUNCTUATION_DEFAULTS[i]);
 		else
 			for (int i = 0; i < 6; ++i)
-				delayCoeffs.add(Integer.parseInt(Constants.Preferences.STR_PUNCTUATION_DEFAULTS[0]));
+				delayCoeffs[i] = Integer.parseInt(Constants.Preferences.STR_PUNCTUATION_DEFAULTS[0]);
 		return delayCoeffs;
 	}
 }
@@ -0,0 +1,177 @@
+package com.infmme.readilyapp.util;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import com.infmme.readilyapp.essential.TokenBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Draws a word of the reader straight from the token buffer: the emphasized letter is centered under the anchor
+ * (e.g. the word pointer), part of the word before it is drawn to the left, the rest and next words to the right.
+ * Size of the view doesn't depend on a word, so showing a word only invalidates the view, nothing is laid out.
+ */
+public class WordView extends View {
+
+	private static final float DEFAULT_TEXT_SIZE_SP = 18;
+	/**
+	 * Widths of chars up to this one are cached
+	 */
+	private static final int WIDTH_CACHE_SIZE = 0x500;
+	private static final int CONTEXT_CHAR_COUNT = 40;
+
+	private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final float[] widthCache = new float[WIDTH_CACHE_SIZE];
+	private final char[] singleChar = new char[1];
+	/**
+	 * Metrics of the paint, updated when text size or typeface changes
+	 */
+	private final Paint.FontMetrics metrics = new Paint.FontMetrics();
+	private int primaryColor = Color.BLACK;
+	private int emphasisColor = Color.RED;
+	private int secondaryColor = Color.GRAY;
+	private View anchor;
+
+	private TokenBuffer tokens;
+	private int index;
+	private boolean showingContext;
+	private long drawNanos;
+	private int drawCount;
+
+	public WordView(Context context){
+		this(context, null);
+	}
+
+	public WordView(Context context, AttributeSet attrs){
+		super(context, attrs);
+		paint.setTypeface(Typeface.MONOSPACE);
+		setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, DEFAULT_TEXT_SIZE_SP,
+											  context.getResources().getDisplayMetrics()));
+	}
+
+	/**
+	 * @param textSize : size in pixels
+	 */
+	public void setTextSize(float textSize){
+		paint.setTextSize(textSize);
+		paint.getFontMetrics(metrics);
+		Arrays.fill(widthCache, -1f);
+		requestLayout();
+		invalidate();
+	}
+
+	public void setColors(int primaryColor, int emphasisColor, int secondaryColor){
+		this.primaryColor = primaryColor;
+		this.emphasisColor = emphasisColor;
+		this.secondaryColor = secondaryColor;
+		invalidate();
+	}
+
+	/**
+	 * @param anchor : sibling view, emphasized letter is centered under its left edge plus left padding
+	 */
+	public void setAnchor(View anchor){
+		this.anchor = anchor;
+		invalidate();
+	}
+
+	/**
+	 * @param tokens         : words of a chunk
+	 * @param index          : index of a word to show
+	 * @param showingContext : true if next words are to be shown too
+	 */
+	public void setWord(TokenBuffer tokens, int index, boolean showingContext){
+		this.tokens = tokens;
+		this.index = index;
+		this.showingContext = showingContext;
+		invalidate();
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec){
+		int height = (int) Math.ceil(metrics.descent - metrics.ascent) + getPaddingTop() + getPaddingBottom();
+		setMeasuredDimension(resolveSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+							 resolveSize(height, heightMeasureSpec));
+	}
+
+	/**
+	 * @return average time of drawing a word, in microseconds
+	 */
+	public long getAverageDrawMicros(){
+		return (drawCount > 0) ? drawNanos / drawCount / 1000 : 0;
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas){
+		if (tokens == null || index >= tokens.size())
+			return;
+		long drawStart = System.nanoTime();
+		drawWord(canvas);
+		drawNanos += System.nanoTime() - drawStart;
+		drawCount++;
+	}
+
+	private void drawWord(Canvas canvas){
+		char[] text = tokens.getText();
+		int start = tokens.getStart(index);
+		int length = tokens.getLength(index);
+		int emphasis = Math.min(tokens.getEmphasis(index), length);
+		int emphasisLength = Math.min(1, length - emphasis);
+
+		float baseline = (getHeight() + getPaddingTop() - getPaddingBottom() - metrics.ascent - metrics.descent) / 2;
+		float x = getAnchorX() - widthOf(text, start + emphasis, emphasisLength) / 2;
+
+		paint.setColor(primaryColor);
+		canvas.drawText(text, start, emphasis, x - widthOf(text, start, emphasis), baseline, paint);
+		paint.setColor(emphasisColor);
+		canvas.drawText(text, start + emphasis, emphasisLength, x, baseline, paint);
+		x += widthOf(text, start + emphasis, emphasisLength);
+		int restStart = start + emphasis + emphasisLength;
+		paint.setColor(primaryColor);
+		canvas.drawText(text, restStart, start + length - restStart, x, baseline, paint);
+		if (!showingContext)
+			return;
+
+		x += widthOf(text, restStart, start + length - restStart) + widthOf(' ');
+		paint.setColor(secondaryColor);
+		int charCount = 0;
+		for (int i = index + 1; i < tokens.size() && charCount < CONTEXT_CHAR_COUNT && x < getWidth(); ++i){
+			int wordLength = tokens.getLength(i);
+			if (wordLength == 0) continue;
+			canvas.drawText(text, tokens.getStart(i), wordLength, x, baseline, paint);
+			x += widthOf(text, tokens.getStart(i), wordLength) + widthOf(' ');
+			charCount += wordLength + 1;
+		}
+	}
+
+	private float getAnchorX(){
+		if (anchor == null)
+			return getWidth() / 2f;
+		return anchor.getLeft() + anchor.getPaddingLeft() - getLeft();
+	}
+
+	private float widthOf(char[] text, int start, int length){
+		float width = 0;
+		for (int i = start; i < start + length; ++i)
+			width += widthOf(text[i]);
+		return width;
+	}
+
+	private float widthOf(char ch){
+		if (ch >= WIDTH_CACHE_SIZE){
+			singleChar[0] = ch;
+			return paint.measureText(singleChar, 0, 1);
+		}
+		if (widthCache[ch] < 0){
+			singleChar[0] = ch;
+			widthCache[ch] = paint.measureText(singleChar, 0, 1);
+		}
+		return widthCache[ch];
+	}
+}